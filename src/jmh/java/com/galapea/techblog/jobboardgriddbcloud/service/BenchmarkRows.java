@@ -0,0 +1,161 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostType;
+import com.galapea.techblog.jobboardgriddbcloud.model.UserRole;
+import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+
+/**
+ * Deterministic records of every container and the Web API payloads they appear in, shaped like
+ * the responses of GridDB Cloud: TSID-like ids, paragraph-sized job descriptions and millisecond
+ * timestamps.
+ */
+final class BenchmarkRows {
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 8, 0);
+    private static final String DESCRIPTION =
+            "We are looking for a backend engineer to design, build and operate the services"
+                    + " behind our job board. You will work with Java 21, Spring Boot and GridDB,"
+                    + " write clean and well tested code, review pull requests and take part in"
+                    + " the on-call rotation. Experience with Docker, Kubernetes, PostgreSQL and"
+                    + " REST API design is a plus. ";
+
+    private BenchmarkRows() {}
+
+    static List<CompanyRecord> companies(int count) {
+        return records(
+                count,
+                i ->
+                        new CompanyRecord(
+                                id("cmp_", i),
+                                "Company " + i,
+                                "https://company" + i + ".example.com",
+                                "A company that builds software, number " + i + "."));
+    }
+
+    static List<JobPostRecord> jobPosts(int count) {
+        JobPostType[] jobTypes = JobPostType.values();
+        WorkModel[] workModels = WorkModel.values();
+        return records(
+                count,
+                i ->
+                        new JobPostRecord(
+                                id("job_", i),
+                                "Senior Software Engineer " + i,
+                                DESCRIPTION.repeat(1 + i % 4),
+                                jobTypes[i % jobTypes.length],
+                                3000.0 + (i % 50) * 100,
+                                EPOCH.plusMinutes(i).plusNanos((i % 1000) * 1_000_000L),
+                                id("cmp_", i % 100),
+                                workModels[i % workModels.length],
+                                "Jakarta, Indonesia",
+                                "https://jobs.example.com/apply/" + i));
+    }
+
+    static List<JobPostSkillRecord> jobPostSkills(int count) {
+        return records(
+                count,
+                i ->
+                        new JobPostSkillRecord(
+                                id("jps_", i), id("job_", i / 8), id("skt_", i % 200), "-"));
+    }
+
+    static List<SkillTagRecord> skillTags(int count) {
+        return records(count, i -> new SkillTagRecord(id("skt_", i), "Skill " + i));
+    }
+
+    static List<UserRecord> users(int count) {
+        UserRole[] roles = UserRole.values();
+        return records(
+                count,
+                i ->
+                        new UserRecord(
+                                id("usr_", i),
+                                "user" + i + "@example.com",
+                                "User Number " + i,
+                                roles[i % roles.length],
+                                i % 3 == 0 ? id("cmp_", i % 100) : null));
+    }
+
+    /** An {@code AcquireRowsResponse} body holding {@code records}. */
+    static <T> byte[] acquireRowsResponse(RowCodec<T> codec, List<T> records) {
+        return write(
+                generator -> {
+                    generator.writeStartObject();
+                    writeColumns(generator, "columns", codec.columns());
+                    generator.writeArrayFieldStart("rows");
+                    codec.rowsOf(records).writeRows(generator);
+                    generator.writeEndArray();
+                    generator.writeNumberField("offset", 0);
+                    generator.writeNumberField("limit", records.size());
+                    generator.writeNumberField("total", records.size());
+                    generator.writeEndObject();
+                });
+    }
+
+    /** A {@code SQLSelectResponse} body with a single result set holding {@code records}. */
+    static <T> byte[] sqlSelectResponse(RowCodec<T> codec, List<T> records) {
+        return write(
+                generator -> {
+                    generator.writeStartArray();
+                    generator.writeStartObject();
+                    writeColumns(generator, "columns", codec.columns());
+                    generator.writeArrayFieldStart("results");
+                    codec.rowsOf(records).writeRows(generator);
+                    generator.writeEndArray();
+                    generator.writeNumberField("responseSizeByte", 0);
+                    generator.writeEndObject();
+                    generator.writeEndArray();
+                });
+    }
+
+    private static void writeColumns(
+            JsonGenerator generator, String field, List<GridDbColumn> columns) throws IOException {
+        generator.writeArrayFieldStart(field);
+        for (GridDbColumn column : columns) {
+            generator.writeStartObject();
+            generator.writeStringField("name", column.getName());
+            generator.writeStringField("type", column.getType());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private static byte[] write(JsonWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writer.write(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static <T> List<T> records(int count, IntFunction<T> factory) {
+        List<T> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(factory.apply(i));
+        }
+        return records;
+    }
+
+    private static String id(String prefix, int i) {
+        return String.format("%s0%012X", prefix, 0x6A0000000L + i);
+    }
+}
@@ -0,0 +1,88 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowSource;
+
+/**
+ * Encoding of {@code registerRows} request bodies the way {@code GridDbCloudClient} streams them:
+ * the rows of a {@link RowSource} written into an enclosing JSON array. The body goes to an
+ * {@link OutputStream} that only counts bytes, so no network or buffer copy is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegisterRowsBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int rows;
+
+    private List<JobPostRecord> jobPosts;
+    private List<JobPostSkillRecord> jobPostSkills;
+    private List<SkillTagRecord> skillTags;
+
+    @Setup
+    public void setUp() {
+        jobPosts = BenchmarkRows.jobPosts(rows);
+        jobPostSkills = BenchmarkRows.jobPostSkills(rows);
+        skillTags = BenchmarkRows.skillTags(rows);
+    }
+
+    @Benchmark
+    public long jobPosts() throws IOException {
+        return write(JobPostContainer.CODEC.rowsOf(jobPosts));
+    }
+
+    @Benchmark
+    public long jobPostSkills() throws IOException {
+        return write(JobPostSkillContainer.CODEC.rowsOf(jobPostSkills));
+    }
+
+    @Benchmark
+    public long skillTags() throws IOException {
+        return write(SkillTagContainer.CODEC.rowsOf(skillTags));
+    }
+
+    private static long write(RowSource rows) throws IOException {
+        CountingOutputStream body = new CountingOutputStream();
+        try (JsonGenerator generator = BenchmarkRows.JSON_FACTORY.createGenerator(body)) {
+            generator.writeStartArray();
+            rows.writeRows(generator);
+            generator.writeEndArray();
+        }
+        return body.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowDecoder;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowStreamReader;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectHandler;
+
+/**
+ * Decoding of {@code rows} (row acquisition) and {@code sql/dml/query} (SQL select) response
+ * bodies into the record of every container, with the codecs and the {@link RowStreamReader} used
+ * by {@code GridDbCloudClient}. One operation decodes a whole response of {@code rows} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowDecodeBenchmark {
+    private static final GridDbCloudSQLStmt STATEMENT = new GridDbCloudSQLStmt("SELECT *");
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private final RowStreamReader reader = new RowStreamReader(BenchmarkRows.JSON_FACTORY);
+
+    private byte[] acquireCompanies;
+    private byte[] acquireJobPosts;
+    private byte[] acquireJobPostSkills;
+    private byte[] acquireSkillTags;
+    private byte[] acquireUsers;
+    private byte[] selectCompanies;
+    private byte[] selectJobPosts;
+    private byte[] selectJobPostSkills;
+    private byte[] selectSkillTags;
+    private byte[] selectUsers;
+
+    @Setup
+    public void setUp() {
+        List<CompanyRecord> companies = BenchmarkRows.companies(rows);
+        List<JobPostRecord> jobPosts = BenchmarkRows.jobPosts(rows);
+        List<JobPostSkillRecord> jobPostSkills = BenchmarkRows.jobPostSkills(rows);
+        List<SkillTagRecord> skillTags = BenchmarkRows.skillTags(rows);
+        List<UserRecord> users = BenchmarkRows.users(rows);
+        acquireCompanies = BenchmarkRows.acquireRowsResponse(CompanyContainer.CODEC, companies);
+        acquireJobPosts = BenchmarkRows.acquireRowsResponse(JobPostContainer.CODEC, jobPosts);
+        acquireJobPostSkills =
+                BenchmarkRows.acquireRowsResponse(JobPostSkillContainer.CODEC, jobPostSkills);
+        acquireSkillTags = BenchmarkRows.acquireRowsResponse(SkillTagContainer.CODEC, skillTags);
+        acquireUsers = BenchmarkRows.acquireRowsResponse(UserContainer.CODEC, users);
+        selectCompanies = BenchmarkRows.sqlSelectResponse(CompanyContainer.CODEC, companies);
+        selectJobPosts = BenchmarkRows.sqlSelectResponse(JobPostContainer.CODEC, jobPosts);
+        selectJobPostSkills =
+                BenchmarkRows.sqlSelectResponse(JobPostSkillContainer.CODEC, jobPostSkills);
+        selectSkillTags = BenchmarkRows.sqlSelectResponse(SkillTagContainer.CODEC, skillTags);
+        selectUsers = BenchmarkRows.sqlSelectResponse(UserContainer.CODEC, users);
+    }
+
+    @Benchmark
+    public long acquireCompanies(Blackhole blackhole) throws IOException {
+        return acquire(acquireCompanies, CompanyContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public long acquireJobPosts(Blackhole blackhole) throws IOException {
+        return acquire(acquireJobPosts, JobPostContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public long acquireJobPostSkills(Blackhole blackhole) throws IOException {
+        return acquire(acquireJobPostSkills, JobPostSkillContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public long acquireSkillTags(Blackhole blackhole) throws IOException {
+        return acquire(acquireSkillTags, SkillTagContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public long acquireUsers(Blackhole blackhole) throws IOException {
+        return acquire(acquireUsers, UserContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public void selectCompanies(Blackhole blackhole) throws IOException {
+        select(selectCompanies, CompanyContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public void selectJobPosts(Blackhole blackhole) throws IOException {
+        select(selectJobPosts, JobPostContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public void selectJobPostSkills(Blackhole blackhole) throws IOException {
+        select(selectJobPostSkills, JobPostSkillContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public void selectSkillTags(Blackhole blackhole) throws IOException {
+        select(selectSkillTags, SkillTagContainer.CODEC, blackhole);
+    }
+
+    @Benchmark
+    public void selectUsers(Blackhole blackhole) throws IOException {
+        select(selectUsers, UserContainer.CODEC, blackhole);
+    }
+
+    private <T> long acquire(byte[] body, RowDecoder<T> decoder, Blackhole blackhole)
+            throws IOException {
+        return reader.readAcquireRows(new ByteArrayInputStream(body), decoder, blackhole::consume);
+    }
+
+    private <T> void select(byte[] body, RowDecoder<T> decoder, Blackhole blackhole)
+            throws IOException {
+        reader.readSelectResults(
+                new ByteArrayInputStream(body),
+                List.of(new SQLSelectHandler<>(STATEMENT, decoder, blackhole::consume)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and formatting of GridDB {@code TIMESTAMP} values, done for every timestamp cell read
+ * or written through the Web API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeUtilBenchmark {
+    private final String timestamp = "2025-03-14T09:26:53.589Z";
+    private final LocalDateTime localDateTime =
+            LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+
+    @Benchmark
+    public LocalDateTime parseToLocalDateTime() {
+        return DateTimeUtil.parseToLocalDateTime(timestamp);
+    }
+
+    @Benchmark
+    public String formatToZoneDateTimeString() {
+        return DateTimeUtil.formatToZoneDateTimeString(localDateTime);
+    }
+}
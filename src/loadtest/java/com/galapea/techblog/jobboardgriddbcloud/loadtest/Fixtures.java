@@ -0,0 +1,78 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Ids and names of the seeded data the scenarios pick from, read from the running instance before
+ * the test starts, and the credentials of the recruiter.
+ */
+record Fixtures(
+        List<String> jobPostIds,
+        List<String> skillIds,
+        List<String> skillNames,
+        String email,
+        String password) {
+    static final Pattern JOB_VIEW_LINK = Pattern.compile("/jobs/view/([A-Za-z0-9_-]+)");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static Fixtures discover(Session session, String email, String password) {
+        Set<String> jobPostIds = new LinkedHashSet<>();
+        Matcher view = JOB_VIEW_LINK.matcher(session.get("discover", "/jobs").body());
+        while (view.find()) {
+            jobPostIds.add(view.group(1));
+        }
+        for (JsonNode jobPostSkill : readTree(session, "/api/jobPostSkills")) {
+            jobPostIds.add(jobPostSkill.path("jobPostId").asText());
+        }
+        List<String> skillIds = new ArrayList<>();
+        List<String> skillNames = new ArrayList<>();
+        for (JsonNode skillTag : readTree(session, "/api/skillTags")) {
+            skillIds.add(skillTag.path("id").asText());
+            skillNames.add(skillTag.path("name").asText());
+        }
+        jobPostIds.remove("");
+        if (jobPostIds.isEmpty() || skillIds.isEmpty()) {
+            throw new IllegalStateException(
+                    "Found "
+                            + jobPostIds.size()
+                            + " job posts and "
+                            + skillIds.size()
+                            + " skill tags; seed the instance before running the load test");
+        }
+        return new Fixtures(
+                List.copyOf(jobPostIds),
+                List.copyOf(skillIds),
+                List.copyOf(skillNames),
+                email,
+                password);
+    }
+
+    String randomJobPostId(ThreadLocalRandom random) {
+        return jobPostIds.get(random.nextInt(jobPostIds.size()));
+    }
+
+    String randomSkillId(ThreadLocalRandom random) {
+        return skillIds.get(random.nextInt(skillIds.size()));
+    }
+
+    String randomSkillName(ThreadLocalRandom random) {
+        return skillNames.get(random.nextInt(skillNames.size()));
+    }
+
+    private static JsonNode readTree(Session session, String path) {
+        try {
+            return MAPPER.readTree(session.get("discover", path).body());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected response from " + path, e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The fields a browser would submit for a form of a server-rendered page, read with regular
+ * expressions. This is enough for the Thymeleaf forms of this app, where every attribute is quoted
+ * and boolean attributes are written as {@code checked="checked"}; it is not a general HTML parser.
+ */
+final class HtmlForm {
+    private static final Pattern FORM =
+            Pattern.compile("<form\\b([^>]*)>(.*?)</form>", Pattern.DOTALL);
+    private static final Pattern CONTROL =
+            Pattern.compile(
+                    "<input\\b([^>]*)>|<textarea\\b([^>]*)>(.*?)</textarea>|<select\\b([^>]*)>(.*?)</select>",
+                    Pattern.DOTALL);
+    private static final Pattern OPTION = Pattern.compile("<option\\b([^>]*)>");
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w:-]+)\\s*=\\s*\"([^\"]*)\"");
+    private static final Pattern CSRF =
+            Pattern.compile(
+                    "name=\"_csrf\"\\s+value=\"([^\"]+)\"|value=\"([^\"]+)\"\\s+name=\"_csrf\"");
+    private static final Pattern ENTITY =
+            Pattern.compile("&(#[0-9]+|#x[0-9a-fA-F]+|amp|lt|gt|quot|apos);");
+
+    private HtmlForm() {}
+
+    /** Returns the CSRF token Spring Security added to the forms of {@code html}. */
+    static Optional<String> csrfToken(String html) {
+        Matcher matcher = CSRF.matcher(html);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        return Optional.of(
+                unescape(matcher.group(1) != null ? matcher.group(1) : matcher.group(2)));
+    }
+
+    /**
+     * Returns the name and value pairs of the enabled fields of the first form whose action ends
+     * with {@code actionSuffix}, in document order.
+     */
+    static Optional<List<Map.Entry<String, String>>> fields(String html, String actionSuffix) {
+        Matcher form = FORM.matcher(html);
+        while (form.find()) {
+            String action = attributes(form.group(1)).getOrDefault("action", "");
+            if (action.endsWith(actionSuffix)) {
+                return Optional.of(controls(form.group(2)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Map.Entry<String, String>> controls(String body) {
+        List<Map.Entry<String, String>> fields = new ArrayList<>();
+        Matcher control = CONTROL.matcher(body);
+        while (control.find()) {
+            if (control.group(1) != null) {
+                Map<String, String> input = attributes(control.group(1));
+                String type = input.getOrDefault("type", "text");
+                boolean unchecked =
+                        ("radio".equals(type) || "checkbox".equals(type))
+                                && !input.containsKey("checked");
+                if (unchecked || "submit".equals(type) || "button".equals(type)) {
+                    continue;
+                }
+                add(fields, input, input.getOrDefault("value", ""));
+            } else if (control.group(2) != null) {
+                add(fields, attributes(control.group(2)), unescape(control.group(3)));
+            } else {
+                Map<String, String> select = attributes(control.group(4));
+                Matcher option = OPTION.matcher(control.group(5));
+                while (option.find()) {
+                    Map<String, String> attributes = attributes(option.group(1));
+                    if (attributes.containsKey("selected")) {
+                        add(fields, select, attributes.getOrDefault("value", ""));
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static void add(
+            List<Map.Entry<String, String>> fields, Map<String, String> control, String value) {
+        String name = control.get("name");
+        if (name != null && !control.containsKey("disabled")) {
+            fields.add(new AbstractMap.SimpleImmutableEntry<>(name, value));
+        }
+    }
+
+    private static Map<String, String> attributes(String tag) {
+        Map<String, String> attributes = new HashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(tag);
+        while (matcher.find()) {
+            attributes.put(matcher.group(1), unescape(matcher.group(2)));
+        }
+        return attributes;
+    }
+
+    private static String unescape(String text) {
+        return ENTITY.matcher(text)
+                .replaceAll(
+                        entity -> {
+                            String name = entity.group(1);
+                            String replacement =
+                                    switch (name) {
+                                        case "amp" -> "&";
+                                        case "lt" -> "<";
+                                        case "gt" -> ">";
+                                        case "quot" -> "\"";
+                                        case "apos" -> "'";
+                                        default ->
+                                                Character.toString(
+                                                        name.startsWith("#x")
+                                                                ? Integer.parseInt(
+                                                                        name.substring(2), 16)
+                                                                : Integer.parseInt(
+                                                                        name.substring(1)));
+                                    };
+                            return Matcher.quoteReplacement(replacement);
+                        });
+    }
+}
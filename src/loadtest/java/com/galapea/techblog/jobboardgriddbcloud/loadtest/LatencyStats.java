@@ -0,0 +1,97 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histograms and error counts per step, such as {@code GET /jobs}. Latencies are recorded
+ * in nanoseconds with three significant digits and reported in milliseconds.
+ */
+final class LatencyStats {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final ConcurrentMap<String, Step> steps = new ConcurrentHashMap<>();
+
+    void record(String name, long durationNanos, boolean success) {
+        Step step = steps.computeIfAbsent(name, key -> new Step());
+        step.recorder.recordValue(Math.max(0, durationNanos));
+        if (!success) {
+            step.errors.increment();
+        }
+    }
+
+    /** Discards everything recorded so far, at the end of the warm-up. */
+    void reset() {
+        steps.values()
+                .forEach(
+                        step -> {
+                            step.recorder.reset();
+                            step.errors.reset();
+                        });
+    }
+
+    /**
+     * Prints a line per step with its throughput and latency percentiles, and writes the full
+     * percentile distribution of each step to {@code <name>.hgrm} in {@code reportDirectory},
+     * the format read by the HdrHistogram plotter.
+     */
+    void report(PrintStream out, double seconds, Path reportDirectory) throws IOException {
+        Files.createDirectories(reportDirectory);
+        Map<String, Histogram> histograms = new TreeMap<>();
+        steps.forEach((name, step) -> histograms.put(name, step.recorder.getIntervalHistogram()));
+        out.printf(
+                "%-36s %8s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "step",
+                "count",
+                "errors",
+                "req/s",
+                "p50 ms",
+                "p90 ms",
+                "p95 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf(
+                    "%-36s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    steps.get(entry.getKey()).errors.sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram, 50),
+                    millis(histogram, 90),
+                    millis(histogram, 95),
+                    millis(histogram, 99),
+                    millis(histogram, 99.9),
+                    histogram.getMaxValue() / NANOS_PER_MILLI);
+            Path file = reportDirectory.resolve(fileName(entry.getKey()) + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(hgrm, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    private static String fileName(String stepName) {
+        return stepName.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+
+    private static final class Step {
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,173 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of a running instance over HTTP.
+ * <p>
+ * Scenarios arrive at a fixed average {@code rate}, independent of how fast the instance answers
+ * (an open workload model), and each runs as one simulated user on a virtual thread. A slow
+ * instance therefore builds up running scenarios instead of quietly receiving less load. Arrivals
+ * are Poisson-distributed by default. Scenario latency is measured from the moment the scenario
+ * was due to start, so time spent waiting to be started is not hidden (coordinated omission).
+ * </p>
+ * <p>
+ * Before the test, job post ids and skill tags are read from the instance, which must hold seeded
+ * data. After a warm-up that is not measured, requests per second and p50 to p99.9 latencies are
+ * printed per step and per scenario, and the percentile distributions are written as
+ * HdrHistogram {@code .hgrm} files. Run with
+ * </p>
+ *
+ * <pre>
+ * ./mvnw -P loadtest test-compile exec:exec -Dloadtest.args="--rate=50 --duration=2m"
+ * </pre>
+ */
+public final class LoadTest {
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        HttpClient httpClient =
+                HttpClient.newBuilder()
+                        .connectTimeout(options.requestTimeout())
+                        .followRedirects(HttpClient.Redirect.NEVER)
+                        .build();
+        Fixtures fixtures =
+                Fixtures.discover(
+                        new Session(
+                                httpClient,
+                                options.baseUrl(),
+                                options.requestTimeout(),
+                                new LatencyStats()),
+                        options.email(),
+                        options.password());
+        System.out.printf(
+                "Load test of %s: %.1f scenarios/s (%s), mix %s, warm-up %s, duration %s,"
+                        + " %d job posts, %d skill tags%n",
+                options.baseUrl(),
+                options.rate(),
+                options.poisson() ? "poisson" : "constant",
+                options.mix(),
+                options.warmup(),
+                options.duration(),
+                fixtures.jobPostIds().size(),
+                fixtures.skillIds().size());
+        new LoadTest().run(options, httpClient, fixtures);
+    }
+
+    private void run(LoadTestOptions options, HttpClient httpClient, Fixtures fixtures)
+            throws Exception {
+        LatencyStats stats = new LatencyStats();
+        LongAdder dropped = new LongAdder();
+        LongAdder started = new LongAdder();
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        ExecutorService users =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("loadtest-user-", 0).factory());
+        Scenario[] scenarios = weighted(options.mix());
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        long begin = System.nanoTime();
+        long measureFrom = begin + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long nextProgress = begin + PROGRESS_INTERVAL_NANOS;
+        boolean measuring = options.warmup().isZero();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = begin;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && next >= measureFrom) {
+                stats.reset();
+                dropped.reset();
+                started.reset();
+                measuring = true;
+                System.out.println("Warm-up done, measuring");
+            }
+            if (next >= nextProgress) {
+                System.out.printf(
+                        "%4ds: %d started, %d running, %d dropped%n",
+                        TimeUnit.NANOSECONDS.toSeconds(next - begin),
+                        started.sum(),
+                        options.maxInFlight() - inFlight.availablePermits(),
+                        dropped.sum());
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+            }
+            Scenario scenario = scenarios[random.nextInt(scenarios.length)];
+            long due = next;
+            if (inFlight.tryAcquire()) {
+                started.increment();
+                users.execute(
+                        () -> {
+                            Session session =
+                                    new Session(
+                                            httpClient,
+                                            options.baseUrl(),
+                                            options.requestTimeout(),
+                                            stats);
+                            boolean success = false;
+                            try {
+                                scenario.run(session, fixtures, ThreadLocalRandom.current());
+                                success = true;
+                            } catch (RuntimeException e) {
+                                // failed requests are already counted by their step
+                            } finally {
+                                stats.record(
+                                        "scenario " + scenario.name().toLowerCase(Locale.ROOT),
+                                        System.nanoTime() - due,
+                                        success);
+                                inFlight.release();
+                            }
+                        });
+            } else {
+                dropped.increment();
+            }
+            next +=
+                    options.poisson()
+                            ? (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos)
+                            : (long) meanIntervalNanos;
+        }
+        users.shutdown();
+        if (!users.awaitTermination(options.requestTimeout().toSeconds() * 4, TimeUnit.SECONDS)) {
+            System.out.println("Scenarios still running at the end were not waited for");
+        }
+        double seconds = options.duration().toNanos() / 1e9;
+        System.out.println();
+        stats.report(System.out, seconds, options.reportDirectory());
+        System.out.printf(
+                "%nScenarios started: %d (%.1f/s), dropped at max-in-flight: %d%n"
+                        + "Percentile distributions written to %s%n",
+                started.sum(),
+                started.sum() / seconds,
+                dropped.sum(),
+                options.reportDirectory().toAbsolutePath());
+        users.shutdownNow();
+    }
+
+    private static Scenario[] weighted(Map<Scenario, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Scenario[]::new);
+    }
+}
@@ -0,0 +1,119 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}.
+ *
+ * @param rate scenarios started per second, whatever the response times (open model)
+ * @param poisson whether arrivals are exponentially spaced around {@code rate} instead of evenly
+ * @param mix relative weight of each scenario
+ * @param maxInFlight arrivals beyond this many running scenarios are dropped and counted
+ */
+record LoadTestOptions(
+        URI baseUrl,
+        double rate,
+        boolean poisson,
+        Duration warmup,
+        Duration duration,
+        Map<Scenario, Integer> mix,
+        int maxInFlight,
+        Duration requestTimeout,
+        String email,
+        String password,
+        Path reportDirectory) {
+
+    static final String USAGE =
+            """
+            Options (--name=value):
+              --base-url         instance under test, default http://localhost:8080
+              --rate             scenarios started per second, default 20
+              --arrivals         poisson or constant, default poisson
+              --warmup           not measured, default 10s
+              --duration         measured, default 60s
+              --mix              scenario weights, default browse:70,search:20,api:8,edit:2
+              --max-in-flight    running scenarios before arrivals are dropped, default 2000
+              --request-timeout  default 10s
+              --email            recruiter login, default admin@jb.com
+              --password         default 123
+              --report-dir       .hgrm percentile files, default target/loadtest
+            Durations are written as 500ms, 30s or 5m.""";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Unexpected argument " + arg + "\n" + USAGE);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        LoadTestOptions options =
+                new LoadTestOptions(
+                        URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+                        Double.parseDouble(values.getOrDefault("rate", "20")),
+                        !"constant".equals(values.getOrDefault("arrivals", "poisson")),
+                        duration(values.getOrDefault("warmup", "10s")),
+                        duration(values.getOrDefault("duration", "60s")),
+                        mix(values.getOrDefault("mix", "browse:70,search:20,api:8,edit:2")),
+                        Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                        duration(values.getOrDefault("request-timeout", "10s")),
+                        values.getOrDefault("email", "admin@jb.com"),
+                        values.getOrDefault("password", "123"),
+                        Path.of(values.getOrDefault("report-dir", "target/loadtest")));
+        values.keySet()
+                .removeAll(
+                        Set.of(
+                                "base-url",
+                                "rate",
+                                "arrivals",
+                                "warmup",
+                                "duration",
+                                "mix",
+                                "max-in-flight",
+                                "request-timeout",
+                                "email",
+                                "password",
+                                "report-dir"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet() + "\n" + USAGE);
+        }
+        if (options.rate() <= 0 || options.mix().isEmpty()) {
+            throw new IllegalArgumentException("rate and mix must be positive\n" + USAGE);
+        }
+        return options;
+    }
+
+    private static Duration duration(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + text);
+        };
+    }
+
+    private static Map<Scenario, Integer> mix(String text) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0) {
+                mix.put(Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,109 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+
+/**
+ * What one simulated user does on arrival. Every request is recorded under a step name that does
+ * not contain ids, so all job posts share one histogram per page.
+ */
+enum Scenario {
+    /** An anonymous visitor opens the job listing and reads a job post or two. */
+    BROWSE {
+        @Override
+        void run(Session session, Fixtures fixtures, ThreadLocalRandom random) {
+            session.get("GET /jobs", "/jobs");
+            session.get("GET /jobs/view/{id}", "/jobs/view/" + fixtures.randomJobPostId(random));
+            if (random.nextInt(100) < 30) {
+                session.get(
+                        "GET /jobs/view/{id}", "/jobs/view/" + fixtures.randomJobPostId(random));
+            }
+        }
+    },
+
+    /** An anonymous visitor types a skill with autocomplete, searches and opens a result. */
+    SEARCH {
+        @Override
+        void run(Session session, Fixtures fixtures, ThreadLocalRandom random) {
+            String skill = fixtures.randomSkillName(random);
+            String typed = skill.substring(0, Math.min(skill.length(), 2 + random.nextInt(2)));
+            session.get(
+                    "GET /api/skillTags/autocomplete",
+                    "/api/skillTags/autocomplete?limit=8&q=" + encode(typed));
+            Session.Response results =
+                    session.get("GET /jobs?searchSkill=", "/jobs?searchSkill=" + encode(skill));
+            Matcher view = Fixtures.JOB_VIEW_LINK.matcher(results.body());
+            if (view.find()) {
+                session.get("GET /jobs/view/{id}", "/jobs/view/" + view.group(1));
+            }
+        }
+    },
+
+    /** A client of the JSON resources under {@code /api}. */
+    API {
+        @Override
+        void run(Session session, Fixtures fixtures, ThreadLocalRandom random) {
+            session.get("GET /api/skillTags", "/api/skillTags");
+            session.get(
+                    "GET /api/skillTags/{id}", "/api/skillTags/" + fixtures.randomSkillId(random));
+            session.get("GET /api/jobPostSkills", "/api/jobPostSkills");
+            session.get("GET /api/users", "/api/users");
+        }
+    },
+
+    /**
+     * A recruiter logs in through the login form, opens a job post in the editor and saves it
+     * unchanged. Both posts carry the CSRF token of the page they were sent from.
+     */
+    EDIT {
+        @Override
+        void run(Session session, Fixtures fixtures, ThreadLocalRandom random) {
+            Session.Response loginPage = session.get("GET /login", "/login");
+            Session.Response login =
+                    session.postForm(
+                            "POST /login",
+                            "/login",
+                            List.of(
+                                    field("email", fixtures.email()),
+                                    field("password", fixtures.password()),
+                                    field("_csrf", csrfToken(loginPage))));
+            if (login.location() == null || login.location().contains("loginError")) {
+                throw new Session.StepFailedException(
+                        "Login as " + fixtures.email() + " failed", null);
+            }
+            String path = "/jobs/edit/" + fixtures.randomJobPostId(random);
+            Session.Response editPage = session.get("GET /jobs/edit/{id}", path);
+            List<Map.Entry<String, String>> fields =
+                    HtmlForm.fields(editPage.body(), path)
+                            .orElseThrow(
+                                    () ->
+                                            new Session.StepFailedException(
+                                                    "No edit form on " + path, null));
+            Session.Response saved = session.postForm("POST /jobs/edit/{id}", path, fields);
+            // the form is rendered again, with a 200, when validation fails
+            if (saved.status() != 302) {
+                throw new Session.StepFailedException("Saving " + path + " was rejected", null);
+            }
+        }
+    };
+
+    abstract void run(Session session, Fixtures fixtures, ThreadLocalRandom random);
+
+    private static String csrfToken(Session.Response page) {
+        return HtmlForm.csrfToken(page.body())
+                .orElseThrow(() -> new Session.StepFailedException("No CSRF token", null));
+    }
+
+    private static Map.Entry<String, String> field(String name, String value) {
+        return new AbstractMap.SimpleImmutableEntry<>(name, value);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.galapea.techblog.jobboardgriddbcloud.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * One simulated user: an HTTP session with its own cookies on a shared {@link HttpClient}.
+ * Redirects are not followed, so every request of a scenario is timed on its own.
+ * <p>
+ * Each request is recorded under its step name. A failed request, one that throws or returns a
+ * 4xx or 5xx status, is recorded as an error and ends the scenario with a
+ * {@link StepFailedException}.
+ * </p>
+ */
+final class Session {
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final Duration requestTimeout;
+    private final LatencyStats stats;
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    Session(HttpClient httpClient, URI baseUrl, Duration requestTimeout, LatencyStats stats) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.stats = stats;
+    }
+
+    Response get(String step, String pathAndQuery) {
+        return send(step, request(pathAndQuery).GET());
+    }
+
+    /** Posts {@code fields}, name and value pairs in order, as a URL-encoded form. */
+    Response postForm(String step, String path, List<Map.Entry<String, String>> fields) {
+        String form =
+                fields.stream()
+                        .map(field -> encode(field.getKey()) + "=" + encode(field.getValue()))
+                        .collect(Collectors.joining("&"));
+        return send(
+                step,
+                request(path)
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form)));
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        HttpRequest.Builder builder =
+                HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery)).timeout(requestTimeout);
+        if (!cookies.isEmpty()) {
+            builder.header(
+                    "Cookie",
+                    cookies.entrySet().stream()
+                            .map(cookie -> cookie.getKey() + "=" + cookie.getValue())
+                            .collect(Collectors.joining("; ")));
+        }
+        return builder;
+    }
+
+    private Response send(String step, HttpRequest.Builder request) {
+        long begin = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            stats.record(step, System.nanoTime() - begin, false);
+            throw new StepFailedException(step + " failed: " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StepFailedException(step + " interrupted", e);
+        }
+        boolean success = response.statusCode() < 400;
+        stats.record(step, System.nanoTime() - begin, success);
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                cookies.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+            }
+        }
+        if (!success) {
+            throw new StepFailedException(step + " returned " + response.statusCode(), null);
+        }
+        return new Response(
+                response.statusCode(),
+                response.headers().firstValue("Location").orElse(null),
+                response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value == null ? "" : value, StandardCharsets.UTF_8);
+    }
+
+    record Response(int status, String location, String body) {}
+
+    static final class StepFailedException extends RuntimeException {
+        StepFailedException(String message, Throwable cause) {
+            super(message, cause, false, false);
+        }
+    }
+}
@@ -4,17 +4,16 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
-import org.springframework.ai.converter.BeanOutputConverter;
-import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.openai.api.ResponseFormat;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,37 +24,51 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.galapea.techblog.jobboardgriddbcloud.model.CompanyDTO;
 import com.galapea.techblog.jobboardgriddbcloud.model.JobPostDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostSkillDTO;
 import com.galapea.techblog.jobboardgriddbcloud.model.JobPostType;
 import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
 import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
 import com.galapea.techblog.jobboardgriddbcloud.service.CompanyGridDbService;
+import com.galapea.techblog.jobboardgriddbcloud.service.DatasetGenerator;
+import com.galapea.techblog.jobboardgriddbcloud.service.JobListingGridDbService;
+import com.galapea.techblog.jobboardgriddbcloud.service.JobListingGridDbService.JobListingDetails;
+import com.galapea.techblog.jobboardgriddbcloud.service.JobPostFilter;
 import com.galapea.techblog.jobboardgriddbcloud.service.JobPostGridDbService;
+import com.galapea.techblog.jobboardgriddbcloud.service.JobPostGridDbService.JobPostPage;
 import com.galapea.techblog.jobboardgriddbcloud.service.JobPostSkillGridDbService;
-import com.galapea.techblog.jobboardgriddbcloud.service.SkillTagGridDbService;
+import com.galapea.techblog.jobboardgriddbcloud.service.SkillExtractionService;
 import com.galapea.techblog.jobboardgriddbcloud.service.TableSeeder;
 import com.galapea.techblog.jobboardgriddbcloud.util.DateTimeUtil;
+import com.galapea.techblog.jobboardgriddbcloud.util.FanOutExecutor;
 import com.galapea.techblog.jobboardgriddbcloud.util.WebUtils;
 
 import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Controller
 @RequestMapping("/jobs")
 public class JobPostController {
     private final Logger log = LoggerFactory.getLogger(getClass());
+    private static final String SKILL_EXTRACTION_FAILED = "Skill extraction failed";
 
     private final JobPostGridDbService jobPostService;
     private final CompanyGridDbService companyService;
     private final JobPostSkillGridDbService jobPostSkillService;
-    private final SkillTagGridDbService skillTagService;
-    private final ChatModel chatModel;
+    private final SkillExtractionService skillExtractionService;
+    private final JobListingGridDbService jobListingService;
+    private final FanOutExecutor fanOutExecutor;
     private final TableSeeder tableSeeder;
+    private final DatasetGenerator datasetGenerator;
+    private final int pageSize;
 
     private final Map<String, String> jobTypeValues =
             Arrays.stream(JobPostType.values())
@@ -67,15 +80,21 @@ public class JobPostController {
             final JobPostGridDbService jobPostService,
             final CompanyGridDbService companyService,
             final JobPostSkillGridDbService jobPostSkillService,
-            final SkillTagGridDbService skillTagService,
-            ChatModel chatModel,
-            TableSeeder tableSeeder) {
+            final SkillExtractionService skillExtractionService,
+            final JobListingGridDbService jobListingService,
+            final FanOutExecutor fanOutExecutor,
+            TableSeeder tableSeeder,
+            final DatasetGenerator datasetGenerator,
+            @Value("${jobboard.jobs.page-size:20}") final int pageSize) {
         this.jobPostService = jobPostService;
         this.companyService = companyService;
         this.jobPostSkillService = jobPostSkillService;
-        this.skillTagService = skillTagService;
-        this.chatModel = chatModel;
+        this.skillExtractionService = skillExtractionService;
+        this.jobListingService = jobListingService;
+        this.fanOutExecutor = fanOutExecutor;
         this.tableSeeder = tableSeeder;
+        this.datasetGenerator = datasetGenerator;
+        this.pageSize = pageSize;
     }
 
     @ModelAttribute
@@ -92,20 +111,77 @@ public class JobPostController {
 
     @GetMapping
     public String list(
+            @RequestParam(name = "q", required = false) String query,
             @RequestParam(name = "searchSkill", required = false) String searchSkill,
+            @RequestParam(name = "match", defaultValue = "all") String match,
+            @RequestParam(name = "jobType", required = false) Set<JobPostType> jobTypes,
+            @RequestParam(name = "workModel", required = false) Set<WorkModel> workModels,
+            @RequestParam(name = "salary", required = false) Set<Integer> salaryBands,
+            @RequestParam(name = "location", required = false) Set<String> locations,
+            @RequestParam(name = "cursor", required = false) String cursor,
             final Model model) {
-        List<JobPostDTO> jobs = jobPostService.findAll(searchSkill);
+        List<JobPostDTO> jobs;
+        // several skills are separated by commas, e.g. "java, spring boot"
+        List<String> skillNames =
+                searchSkill == null
+                        ? List.of()
+                        : Arrays.stream(searchSkill.split(","))
+                                .map(String::trim)
+                                .filter(skillName -> !skillName.isEmpty())
+                                .distinct()
+                                .toList();
+        boolean matchAll = !"any".equalsIgnoreCase(match);
+        if (query != null && !query.isBlank()) {
+            if (jobPostService.isTextSearchReady()) {
+                jobs = jobPostService.searchText(query, skillNames, matchAll);
+                model.addAttribute("totalJobs", jobs.size());
+            } else {
+                jobs = List.of();
+                model.addAttribute(
+                        WebUtils.MSG_INFO, WebUtils.getMessage("jobPost.list.searchLoading"));
+            }
+        } else if (!skillNames.isEmpty()) {
+            jobs = jobPostService.searchBySkills(skillNames, matchAll);
+            model.addAttribute("totalJobs", jobs.size());
+        } else {
+            JobPostFilter filter = new JobPostFilter(jobTypes, workModels, salaryBands, locations);
+            JobPostPage page;
+            try {
+                page = jobPostService.findPage(cursor, pageSize, filter);
+            } catch (IllegalArgumentException e) {
+                // an edited or truncated cursor is a client error, not a server failure
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            jobs = page.jobPosts();
+            model.addAttribute("totalJobs", page.remaining());
+            model.addAttribute("facets", page.facets());
+            if (page.nextCursor() != null) {
+                // the next page keeps the facet filters of this one
+                model.addAttribute(
+                        "nextPageUrl",
+                        ServletUriComponentsBuilder.fromCurrentRequest()
+                                .replaceQueryParam("cursor", page.nextCursor())
+                                .toUriString());
+            }
+        }
+        JobListingDetails details = jobListingService.findDetails(jobs);
         List<JobListingResponse> jobPosts =
                 jobs.stream()
                         .map(
-                                jobPost -> {
-                                    JobListingResponse response =
-                                            buildJobPostResponse(jobPost.getId());
-                                    return response;
-                                })
+                                jobPost ->
+                                        buildJobPostResponse(
+                                                jobPost,
+                                                details.companies().get(jobPost.getCompanyId()),
+                                                details.skillNamesOf(jobPost.getId())))
                         .toList();
         model.addAttribute("jobPosts", jobPosts);
+        model.addAttribute("q", query);
         model.addAttribute("searchSkill", searchSkill);
+        model.addAttribute("match", match);
+        if (cursor != null) {
+            // next page requested by the infinite-scroll sentinel
+            return "jobs/list :: jobPage";
+        }
         return "jobs/list";
     }
 
@@ -133,9 +209,18 @@ public class JobPostController {
     @GetMapping("/edit/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public String edit(@PathVariable(name = "id") final String id, final Model model) {
-        JobPostDTO jobPostDTO = jobPostService.get(id);
+        JobPostDTO jobPostDTO;
+        List<JobPostSkillDTO> jobPostSkills;
+        try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+            Supplier<JobPostDTO> jobPostCall = scope.fork(() -> jobPostService.get(id));
+            Supplier<List<JobPostSkillDTO>> skillsCall =
+                    scope.fork(() -> jobPostSkillService.findByJobPostId(id));
+            scope.join();
+            jobPostDTO = jobPostCall.get();
+            jobPostSkills = skillsCall.get();
+        }
         List<SkillTagDTO> skillTags =
-                jobPostSkillService.findByJobPostId(id).stream()
+                jobPostSkills.stream()
                         .map(
                                 js -> {
                                     SkillTagDTO stag = new SkillTagDTO();
@@ -159,8 +244,7 @@ public class JobPostController {
         if (bindingResult.hasErrors()) {
             return "jobs/edit";
         }
-        jobPostService.update(id, jobPostDTO);
-        jobPostSkillService.replaceSkillsForJobPost(id, jobPostDTO.getSkillsIds());
+        jobPostService.updateWithSkills(id, jobPostDTO);
         redirectAttributes.addFlashAttribute(
                 WebUtils.MSG_SUCCESS, WebUtils.getMessage("jobPost.update.success"));
         return "redirect:/jobs";
@@ -188,73 +272,73 @@ public class JobPostController {
     public String extractSkill(@PathVariable(name = "id") final String jobId, final Model model)
             throws JsonProcessingException {
         JobPostDTO jobPostDTO = jobPostService.get(jobId);
-        List<SkillTagDTO> skillTags = skillTagService.findAll(200L);
-        List<SkillTagDTO> extractedSkills = generateSkills(jobPostDTO, skillTags);
+        List<SkillTagDTO> extractedSkills = skillExtractionService.extract(jobPostDTO);
         model.addAttribute("extractedSkills", extractedSkills);
         return "fragments/skills :: skillsDiv";
     }
 
-    private List<SkillTagDTO> generateSkills(JobPostDTO jobPostDTO, List<SkillTagDTO> skillTags)
-            throws JsonProcessingException, JsonMappingException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        String skillCatalogJson = objectMapper.writeValueAsString(skillTags);
-        BeanOutputConverter<SkillResponse> outputConverter =
-                new BeanOutputConverter<>(new ParameterizedTypeReference<SkillResponse>() {});
-        String format = outputConverter.getFormat();
-        // @formatter:off
-        String promptStr =
-                """
-                You are an AI assistant that extracts required skills from a job description.
-                TASK:
-                - Only return skills present in the provided JSON skill catalog.
-                - Matching is case-insensitive.
-                - Do not invent or include skills not in the catalog.
-                - Output strictly as a JSON array of objects.
-
-                NOW PROCESS:
-                <JOB_DESCRIPTION>
-                {jobDescription}
-                </JOB_DESCRIPTION>
-                <SKILL_LIST>
-                {skillCatalog}
-                </SKILL_LIST>
+    /**
+     * Streams the extracted skills as Server-Sent Events: one {@code skill} event per skill as soon
+     * as the model has named it, then {@code done}, or {@code failed} with a fixed message; the
+     * cause, which may carry upstream error details, is only logged. The request thread is released
+     * while the model answers.
+     */
+    @GetMapping(path = "/skills/extract/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<ServerSentEvent<Object>> extractSkillStream(
+            @PathVariable(name = "id") final String jobId) {
+        return Mono.fromCallable(() -> jobPostService.get(jobId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(
+                        jobPost ->
+                                skillExtractionService.extractStream(
+                                        jobPost.getId(), jobPost.getDescription()))
+                .map(skill -> ServerSentEvent.<Object>builder(skill).event("skill").build())
+                .concatWith(Mono.just(ServerSentEvent.<Object>builder("").event("done").build()))
+                .onErrorResume(
+                        e -> {
+                            log.warn("Failed to stream the skills of job post {}", jobId, e);
+                            return Mono.just(
+                                    ServerSentEvent.<Object>builder(SKILL_EXTRACTION_FAILED)
+                                            .event("failed")
+                                            .build());
+                        });
+    }
 
-                {format}
-            """;
-        // @formatter:on
-        Prompt prompt =
-                PromptTemplate.builder()
-                        .template(promptStr)
-                        .build()
-                        .create(
-                                Map.of(
-                                        "jobDescription",
-                                        jobPostDTO.getDescription(),
-                                        "skillCatalog",
-                                        skillCatalogJson,
-                                        "format",
-                                        format),
-                                OpenAiChatOptions.builder()
-                                        .responseFormat(
-                                                new ResponseFormat(
-                                                        ResponseFormat.Type.JSON_OBJECT, null))
-                                        .build());
-        var generation = this.chatModel.call(prompt).getResult();
-        String outputText = generation.getOutput().getText();
-        log.info(">>>>= AI outputText:  {}", outputText);
-        SkillResponse skillResponse = outputConverter.convert(outputText);
-        return skillResponse.skills();
+    private JobListingResponse buildJobPostResponse(final String id) {
+        try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+            Supplier<List<String>> skillsCall =
+                    scope.fork(
+                            () ->
+                                    jobPostSkillService.findByJobPostId(id).stream()
+                                            .map(s -> s.getSkillName())
+                                            .toList());
+            // the company lookup needs the companyId, so it runs after the job lookup
+            Supplier<JobPostWithCompany> jobPostCall =
+                    scope.fork(
+                            () -> {
+                                JobPostDTO jobPostDTO = jobPostService.get(id);
+                                return new JobPostWithCompany(
+                                        jobPostDTO, companyService.get(jobPostDTO.getCompanyId()));
+                            });
+            scope.join();
+            JobPostWithCompany jobPost = jobPostCall.get();
+            return buildJobPostResponse(jobPost.jobPost(), jobPost.company(), skillsCall.get());
+        }
     }
 
-    record SkillResponse(List<SkillTagDTO> skills) {}
+    private record JobPostWithCompany(JobPostDTO jobPost, CompanyDTO company) {}
 
-    private JobListingResponse buildJobPostResponse(final String id) {
-        List<String> skills =
-                jobPostSkillService.findByJobPostId(id).stream()
-                        .map(s -> s.getSkillName())
-                        .toList();
-        JobPostDTO jobPostDTO = jobPostService.get(id);
-        CompanyDTO companyDTO = companyService.get(jobPostDTO.getCompanyId());
+    private JobListingResponse buildJobPostResponse(
+            final JobPostDTO jobPostDTO, final CompanyDTO companyDTO, final List<String> skills) {
+        CompanyResponse company =
+                companyDTO != null
+                        ? new CompanyResponse(
+                                jobPostDTO.getCompanyId(),
+                                companyDTO.getName(),
+                                companyDTO.getWebsiteUrl(),
+                                companyDTO.getDescription())
+                        : new CompanyResponse(jobPostDTO.getCompanyId(), null, null, null);
         JobListingResponse jobPost =
                 new JobListingResponse(
                         jobPostDTO.getId(),
@@ -268,19 +352,35 @@ public class JobPostController {
                         jobPostDTO.getApplyUrl(),
                         DateTimeUtil.formatDaysAgo(jobPostDTO.getDatePosted()),
                         skills,
-                        new CompanyResponse(
-                                jobPostDTO.getCompanyId(),
-                                companyDTO.getName(),
-                                companyDTO.getWebsiteUrl(),
-                                companyDTO.getDescription()));
+                        company);
         return jobPost;
     }
 
+    /**
+     * Creates the two demo jobs or, when {@code jobs} or {@code companies} is given, starts
+     * generating a synthetic dataset of that size in the background.
+     */
     @GetMapping("/generateDemoData")
     @PreAuthorize("hasRole('ADMIN')")
-    public String generateDemoData(final RedirectAttributes redirectAttributes) {
-        this.tableSeeder.seedJobs();
-        redirectAttributes.addFlashAttribute(WebUtils.MSG_SUCCESS, "Finished creating demo jobs.");
+    public String generateDemoData(
+            @RequestParam(name = "jobs", required = false) final Integer jobs,
+            @RequestParam(name = "companies", required = false) final Integer companies,
+            final RedirectAttributes redirectAttributes) {
+        if (jobs == null && companies == null) {
+            this.tableSeeder.seedJobs();
+            redirectAttributes.addFlashAttribute(
+                    WebUtils.MSG_SUCCESS, "Finished creating demo jobs.");
+        } else if ((jobs != null && jobs < 0) || (companies != null && companies < 1)) {
+            redirectAttributes.addFlashAttribute(
+                    WebUtils.MSG_ERROR, "A demo dataset needs at least one company.");
+        } else if (this.datasetGenerator.start(companies, jobs)) {
+            redirectAttributes.addFlashAttribute(
+                    WebUtils.MSG_INFO,
+                    "Generating a demo dataset in the background, see the log for progress.");
+        } else {
+            redirectAttributes.addFlashAttribute(
+                    WebUtils.MSG_ERROR, "A demo dataset is already being generated.");
+        }
         return "redirect:/jobs";
     }
 }
@@ -0,0 +1,3 @@
+package com.galapea.techblog.jobboardgriddbcloud.model;
+
+public record SkillTagSuggestion(String id, String name, int jobCount) {}
@@ -12,9 +12,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagSuggestion;
 import com.galapea.techblog.jobboardgriddbcloud.service.SkillTagGridDbService;
 
 import jakarta.validation.Valid;
@@ -34,6 +36,17 @@ public class SkillTagResource {
         return ResponseEntity.ok(skillTagService.findAll());
     }
 
+    /**
+     * Prefix and infix suggestions for an autocomplete field, ranked by the number of job posts
+     * that use each skill.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SkillTagSuggestion>> autocomplete(
+            @RequestParam(name = "q") final String query,
+            @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        return ResponseEntity.ok(skillTagService.suggest(query, Math.clamp(limit, 1, 50)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SkillTagDTO> getSkillTag(@PathVariable(name = "id") final String id) {
         return ResponseEntity.ok(skillTagService.get(id));
@@ -0,0 +1,43 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobboard.company-cache")
+public class CompanyCacheProperties {
+    private long maximumSize = 1000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Entries older than this are reloaded in the background on the next read, while the stale
+     * value is still served. Must be shorter than {@link #expireAfterWrite}.
+     */
+    private Duration refreshAfterWrite = Duration.ofMinutes(1);
+
+    public long getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return this.expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getRefreshAfterWrite() {
+        return this.refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+}
@@ -1,9 +1,9 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,32 +15,49 @@ import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbContainerDefinition;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowWriteBuffer;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsResponse;
 
 @Component
+@MeteredContainer("JBCompany")
 public class CompanyContainer {
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final GridDbCloudClient gridDbCloudClient;
+    private final RowWriteBuffer rowWriteBuffer;
     private static final String TBL_NAME = "JBCompany";
+    private static final List<GridDbColumn> COLUMNS =
+            List.of(
+                    new GridDbColumn("id", "STRING", Set.of("TREE")),
+                    new GridDbColumn("name", "STRING"),
+                    new GridDbColumn("websiteUrl", "STRING"),
+                    new GridDbColumn("description", "STRING"));
+    static final RowCodec<CompanyRecord> CODEC =
+            RowCodec.builder(COLUMNS)
+                    .build(
+                            cells ->
+                                    new CompanyRecord(
+                                            cells.get(0), cells.get(1), cells.get(2), cells.get(3)),
+                            record ->
+                                    new Object[] {
+                                        record.id(),
+                                        record.name(),
+                                        record.websiteUrl(),
+                                        record.description()
+                                    });
 
-    public CompanyContainer(GridDbCloudClient gridDbCloudClient) {
+    public CompanyContainer(GridDbCloudClient gridDbCloudClient, RowWriteBuffer rowWriteBuffer) {
         this.gridDbCloudClient = gridDbCloudClient;
+        this.rowWriteBuffer = rowWriteBuffer;
     }
 
     public void createTable() {
         log.info("Creating table " + TBL_NAME + " in GridDB...");
-        List<GridDbColumn> columns =
-                List.of(
-                        new GridDbColumn("id", "STRING", Set.of("TREE")),
-                        new GridDbColumn("name", "STRING"),
-                        new GridDbColumn("websiteUrl", "STRING"),
-                        new GridDbColumn("description", "STRING"));
-
         GridDbContainerDefinition containerDefinition =
-                GridDbContainerDefinition.build(TBL_NAME, columns);
+                GridDbContainerDefinition.build(TBL_NAME, COLUMNS);
         this.gridDbCloudClient.createContainer(containerDefinition);
-        log.info("Created table " + TBL_NAME + " with columns: {}", columns);
+        log.info("Created table " + TBL_NAME + " with columns: {}", COLUMNS);
     }
 
     private void post(String uri, Object body) {
@@ -76,41 +93,15 @@ public class CompanyContainer {
     }
 
     public void saveRecords(List<CompanyRecord> cRecords) {
-        // Initialize a StringBuilder to create the JSON-like array representation
-        StringBuilder sb = new StringBuilder();
-        sb.append("["); // Start the outer array
-        for (int i = 0; i < cRecords.size(); i++) {
-            CompanyRecord record = cRecords.get(i);
-            sb.append("["); // Start the inner array (each record)
-            // Append each record field in order
-            sb.append("\"").append(record.id()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.name()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.websiteUrl()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.description()).append("\"");
-            sb.append("]"); // End the inner array
-            // Add a comma between record, except for the last one
-            if (i < cRecords.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]"); // End the outer array
-        String result = sb.toString();
-        log.info("Companys array: {}", result);
-        this.gridDbCloudClient.registerRows(TBL_NAME, result);
+        log.info("Registering {} companies in GridDB", cRecords.size());
+        this.rowWriteBuffer.write(TBL_NAME, cRecords.size(), CODEC.rowsOf(cRecords));
     }
 
     public List<CompanyRecord> getAll() {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(50L).sort("id ASC").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<CompanyRecord> companys = convertResponseToRecord(response);
+        List<CompanyRecord> companys = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, companys::add);
         log.info("Fetched {} companys from GridDB", companys.size());
         return companys;
     }
@@ -118,14 +109,7 @@ public class CompanyContainer {
     public Optional<CompanyRecord> getOne(String id) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(1L).condition("id == \'" + id + "\'").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<CompanyRecord> companys = convertResponseToRecord(response);
-        log.info("Fetched {} companys from GridDB", companys.size());
-        return companys.isEmpty() ? Optional.empty() : Optional.of(companys.get(0));
+        return getFirst(requestBody);
     }
 
     public Optional<CompanyRecord> getOneByName(String name) {
@@ -134,39 +118,13 @@ public class CompanyContainer {
                         .limit(1L)
                         .condition("name == \'" + name + "\'")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<CompanyRecord> companys = convertResponseToRecord(response);
-        log.info("Fetched {} companys from GridDB", companys.size());
-        return companys.isEmpty() ? Optional.empty() : Optional.of(companys.get(0));
+        return getFirst(requestBody);
     }
 
-    private List<CompanyRecord> convertResponseToRecord(AcquireRowsResponse response) {
-        List<CompanyRecord> results =
-                response.getRows().stream()
-                        .map(
-                                row -> {
-                                    try {
-                                        var cat =
-                                                new CompanyRecord(
-                                                        row.get(0).toString(),
-                                                        row.get(1).toString(),
-                                                        row.get(2).toString(),
-                                                        row.get(3).toString());
-                                        return cat;
-                                    } catch (Exception e) {
-                                        log.error(
-                                                "Error parsing company row: {}. Error: {}",
-                                                row.toString(),
-                                                e.getMessage());
-                                        return null;
-                                    }
-                                })
-                        .filter(r -> r != null)
-                        .collect(Collectors.toList());
-        return results;
+    private Optional<CompanyRecord> getFirst(AcquireRowsRequest requestBody) {
+        List<CompanyRecord> companys = new ArrayList<>(1);
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, companys::add);
+        log.info("Fetched {} companys from GridDB", companys.size());
+        return companys.isEmpty() ? Optional.empty() : Optional.of(companys.get(0));
     }
 }
@@ -1,6 +1,7 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -8,15 +9,61 @@ import org.springframework.stereotype.Service;
 import com.galapea.techblog.jobboardgriddbcloud.model.CompanyDTO;
 import com.galapea.techblog.jobboardgriddbcloud.util.NotFoundException;
 import com.galapea.techblog.jobboardgriddbcloud.util.NotImplementedException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.f4b6a3.tsid.TsidCreator;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Company reads are served from an in-process near-cache. Entries expire after a fixed TTL and
+ * are refreshed in the background once they reach the refresh age, so readers on the hot path
+ * never wait on GridDB for a company that was already loaded. Every write through this service
+ * invalidates the cache. Hit, miss and eviction counts are published as {@code cache.*} meters of
+ * the {@code companies} and {@code allCompanies} caches.
+ */
 @Service
 public class CompanyGridDbService {
 
+    private static final String ALL_COMPANIES = "*";
+
     private final CompanyContainer companyContainer;
+    private final LoadingCache<String, Optional<CompanyRecord>> companyCache;
+    private final LoadingCache<String, List<CompanyRecord>> allCompaniesCache;
 
-    public CompanyGridDbService(CompanyContainer companyContainer) {
+    public CompanyGridDbService(
+            CompanyContainer companyContainer,
+            CompanyCacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
         this.companyContainer = companyContainer;
+        this.companyCache =
+                Caffeine.newBuilder()
+                        .maximumSize(cacheProperties.getMaximumSize())
+                        .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                        .refreshAfterWrite(cacheProperties.getRefreshAfterWrite())
+                        .recordStats()
+                        .build(companyContainer::getOne);
+        this.allCompaniesCache =
+                Caffeine.newBuilder()
+                        .maximumSize(1)
+                        .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                        .refreshAfterWrite(cacheProperties.getRefreshAfterWrite())
+                        .recordStats()
+                        .build(key -> loadAll());
+        CaffeineCacheMetrics.monitor(meterRegistry, companyCache, "companies");
+        CaffeineCacheMetrics.monitor(meterRegistry, allCompaniesCache, "allCompanies");
+    }
+
+    private List<CompanyRecord> loadAll() {
+        List<CompanyRecord> companies = companyContainer.getAll();
+        companies.forEach(company -> companyCache.put(company.id(), Optional.of(company)));
+        return companies;
+    }
+
+    private void invalidateCache() {
+        allCompaniesCache.invalidateAll();
+        companyCache.invalidateAll();
     }
 
     public static String nextId() {
@@ -24,15 +71,15 @@ public class CompanyGridDbService {
     }
 
     public List<CompanyDTO> findAll() {
-        final List<CompanyRecord> companies = companyContainer.getAll();
+        final List<CompanyRecord> companies = allCompaniesCache.get(ALL_COMPANIES);
         return companies.stream()
                 .map(company -> mapToDTO(company, new CompanyDTO()))
                 .collect(Collectors.toList());
     }
 
     public CompanyDTO get(final String id) {
-        return companyContainer
-                .getOne(id)
+        return companyCache
+                .get(id)
                 .map(company -> mapToDTO(company, new CompanyDTO()))
                 .orElseThrow(NotFoundException::new);
     }
@@ -46,6 +93,7 @@ public class CompanyGridDbService {
                         companyDTO.getWebsiteUrl(),
                         companyDTO.getDescription());
         companyContainer.saveRecords(List.of(newCompany));
+        invalidateCache();
         return id;
     }
 
@@ -64,6 +112,7 @@ public class CompanyGridDbService {
                         .collect(Collectors.toList());
         if (!companyRecords.isEmpty()) {
             companyContainer.saveRecords(companyRecords);
+            invalidateCache();
         }
     }
 
@@ -75,6 +124,7 @@ public class CompanyGridDbService {
                         companyDTO.getWebsiteUrl(),
                         companyDTO.getDescription());
         companyContainer.saveRecords(List.of(updatedCompany));
+        invalidateCache();
     }
 
     public void delete(final String id) {
@@ -90,7 +140,7 @@ public class CompanyGridDbService {
     }
 
     public boolean idExists(final String id) {
-        return companyContainer.getOne(id).isPresent();
+        return companyCache.get(id).isPresent();
     }
 
     public boolean nameExists(final String name) {
@@ -0,0 +1,560 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.CompanyDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostType;
+import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
+import com.github.f4b6a3.tsid.Tsid;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates a synthetic dataset of companies, job posts and skill links, to find out how the app
+ * behaves with far more data than {@link TableSeeder} creates.
+ * <p>
+ * Job posts get a title, a description naming their skills, a log-normal salary depending on
+ * seniority and job type, and a posting date within the last 180 days. Skills are drawn from the
+ * skill catalog by a Zipf distribution, the first skill tags being the most popular, and job posts
+ * are spread over companies the same way, so that a few companies and skills account for most of
+ * the rows, as on a real job board.
+ * </p>
+ * <p>
+ * Job posts are generated and written in batches of {@code batch-size}, {@code concurrency}
+ * batches at a time on virtual threads, so memory stays bounded by the batches in flight whatever
+ * the size of the dataset. Each batch is generated from its own random stream and ids are derived
+ * from it, so the same seed always writes the same rows and running it again overwrites them
+ * instead of adding duplicates. Job post ids are TSIDs dated by the age of the job post, so like
+ * the ids of real job posts they sort by posting date, which {@link SkillJobIndex} relies on to
+ * list the newest first.
+ * </p>
+ */
+@Component
+public class DatasetGenerator {
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+    private static final int SCAN_PAGE_SIZE = 1000;
+    private static final long MAX_AGE_SECONDS = Duration.ofDays(180).toSeconds();
+    // generated ids are dated back from here, before the job posts of any real deployment
+    private static final Instant ID_ANCHOR = Instant.parse("2025-01-01T00:00:00Z");
+    private static final int TSID_RANDOM_BITS = 22;
+    private static final int TSID_RANDOM_MASK = (1 << TSID_RANDOM_BITS) - 1;
+
+    private static final String[] SENIORITIES = {"Junior ", "", "Senior ", "Staff ", "Lead "};
+    private static final int[] SENIORITY_WEIGHTS = {15, 35, 30, 8, 12};
+    private static final double[] SENIORITY_MEDIAN_SALARIES = {3000, 5500, 8500, 12000, 10500};
+    private static final JobPostType[] JOB_TYPES = {
+        JobPostType.FULL_TIME, JobPostType.CONTRACT, JobPostType.PART_TIME, JobPostType.INTERNSHIP
+    };
+    private static final int[] JOB_TYPE_WEIGHTS = {70, 15, 10, 5};
+    private static final double[] JOB_TYPE_SALARY_FACTORS = {1.0, 1.2, 0.5, 0.25};
+    private static final WorkModel[] WORK_MODELS = {
+        WorkModel.ONSITE, WorkModel.HYBRID, WorkModel.REMOTE
+    };
+    private static final int[] WORK_MODEL_WEIGHTS = {40, 35, 25};
+    private static final String[] ROLES = {
+        "Software Engineer",
+        "Backend Engineer",
+        "Frontend Developer",
+        "Full Stack Developer",
+        "Data Engineer",
+        "Data Scientist",
+        "Machine Learning Engineer",
+        "DevOps Engineer",
+        "Site Reliability Engineer",
+        "Mobile Developer",
+        "QA Engineer",
+        "Platform Engineer",
+        "Security Engineer",
+        "Cloud Architect"
+    };
+    // most job posts are in the first few locations
+    private static final String[] LOCATIONS = {
+        "Jakarta",
+        "Singapore",
+        "London",
+        "Berlin",
+        "Amsterdam",
+        "New York",
+        "San Francisco",
+        "Bangalore",
+        "Tokyo",
+        "Sydney",
+        "Toronto",
+        "Paris",
+        "Kuala Lumpur",
+        "Stockholm",
+        "Dublin",
+        "Madrid",
+        "Warsaw",
+        "Seoul",
+        "Austin",
+        "Lisbon"
+    };
+    private static final String[] COMPANY_PREFIXES = {
+        "Northwind",
+        "Blue Harbor",
+        "Crescent",
+        "Evergreen",
+        "Ironclad",
+        "Lumen",
+        "Meridian",
+        "Nimbus",
+        "Orchid",
+        "Pinnacle",
+        "Quantum",
+        "Redwood",
+        "Silverline",
+        "Summit",
+        "Tidal",
+        "Umbra",
+        "Vertex",
+        "Willow",
+        "Zephyr",
+        "Atlas"
+    };
+    private static final String[] COMPANY_SUFFIXES = {
+        "Labs",
+        "Systems",
+        "Technologies",
+        "Digital",
+        "Software",
+        "Analytics",
+        "Networks",
+        "Solutions",
+        "Cloud",
+        "Works"
+    };
+    private static final String[] INDUSTRIES = {
+        "payments",
+        "logistics",
+        "healthcare",
+        "e-commerce",
+        "travel",
+        "education",
+        "insurance",
+        "media streaming",
+        "energy",
+        "gaming"
+    };
+    private static final String[] DUTIES = {
+        "Design, build and operate services in %s that handle millions of requests a day.",
+        "Own features end to end, from the first design in %s to running them in production.",
+        "Improve the performance and reliability of our %s code base.",
+        "Review code, pair with teammates and share what you know about %s.",
+        "Build data pipelines and tooling with %s for product and analytics teams.",
+        "Automate builds, tests and deployments around %s.",
+        "Troubleshoot production issues and make %s services easier to observe.",
+        "Work with product managers and designers to turn ideas into %s features."
+    };
+    private static final String[] REQUIREMENTS = {
+        "%d+ years of professional experience with %s.",
+        "Solid, hands-on knowledge of %2$s, ideally in a production setting for %1$d+ years.",
+        "%d+ years of building and shipping software with %s."
+    };
+    private static final String[] QUALITIES = {
+        "You communicate clearly and enjoy working in a team.",
+        "You take ownership of problems and see them through.",
+        "You are curious and keep learning new tools and techniques.",
+        "You write code that others enjoy reading and maintaining."
+    };
+
+    private final DatasetProperties properties;
+    private final CompanyGridDbService companyService;
+    private final JobPostContainer jobPostContainer;
+    private final JobPostSkillContainer jobPostSkillContainer;
+    private final SkillTagContainer skillTagContainer;
+    private final JobPostIndexer jobPostIndexer;
+    private final SkillJobIndex skillJobIndex;
+    private final ExecutorService workers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dataset-", 0).factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean startupRunDone = new AtomicBoolean();
+
+    public DatasetGenerator(
+            DatasetProperties properties,
+            CompanyGridDbService companyService,
+            JobPostContainer jobPostContainer,
+            JobPostSkillContainer jobPostSkillContainer,
+            SkillTagContainer skillTagContainer,
+            JobPostIndexer jobPostIndexer,
+            SkillJobIndex skillJobIndex) {
+        this.properties = properties;
+        this.companyService = companyService;
+        this.jobPostContainer = jobPostContainer;
+        this.jobPostSkillContainer = jobPostSkillContainer;
+        this.skillTagContainer = skillTagContainer;
+        this.jobPostIndexer = jobPostIndexer;
+        this.skillJobIndex = skillJobIndex;
+    }
+
+    @EventListener(SchemaReadyEvent.class)
+    public void onSchemaReady() {
+        if (properties.isGenerateOnStartup() && startupRunDone.compareAndSet(false, true)) {
+            // the indexes load from the same event, possibly while the first batches are written
+            start(null, null, true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Generates a dataset in the background, with the configured number of companies or jobs where
+     * {@code null}.
+     *
+     * @return {@code false} if a dataset is already being generated
+     */
+    public boolean start(Integer companies, Integer jobs) {
+        return start(companies, jobs, false);
+    }
+
+    private boolean start(Integer companies, Integer jobs, boolean reloadIndexes) {
+        int companyCount = companies != null ? companies : properties.getCompanies();
+        int jobCount = jobs != null ? jobs : properties.getJobs();
+        if (companyCount < 1 || jobCount < 0) {
+            throw new IllegalArgumentException(
+                    "At least one company and no negative number of jobs are required");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        workers.execute(
+                () -> {
+                    try {
+                        generate(companyCount, jobCount, reloadIndexes);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        log.warn("Dataset generation interrupted");
+                    } catch (RuntimeException e) {
+                        log.error("Dataset generation failed", e);
+                    } finally {
+                        running.set(false);
+                    }
+                });
+        return true;
+    }
+
+    private void generate(int companyCount, int jobCount, boolean reloadIndexes)
+            throws InterruptedException {
+        List<SkillTagRecord> skillTags = new ArrayList<>();
+        skillTagContainer.forEach(SCAN_PAGE_SIZE, skillTags::add);
+        if (skillTags.isEmpty()) {
+            throw new IllegalStateException("No skill tags to link, seed the skill catalog first");
+        }
+        // numeric ids in skills.json follow popularity, so they are ranked by value
+        skillTags.sort(
+                Comparator.comparingInt((SkillTagRecord skillTag) -> skillTag.id().length())
+                        .thenComparing(SkillTagRecord::id));
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int concurrency = Math.max(1, properties.getConcurrency());
+        log.info(
+                "Generating {} companies and {} job posts with seed {}: batchSize={}, concurrency={}",
+                companyCount,
+                jobCount,
+                properties.getSeed(),
+                batchSize,
+                concurrency);
+        long begin = System.nanoTime();
+        writeCompanies(companyCount, batchSize);
+
+        Plan plan =
+                new Plan(
+                        properties.getSeed(),
+                        jobCount,
+                        batchSize,
+                        skillTags,
+                        new Zipf(skillTags.size(), properties.getSkillExponent()),
+                        new Zipf(companyCount, 1.0),
+                        new Zipf(LOCATIONS.length, 1.0),
+                        LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        int batches = (int) ((jobCount + (long) batchSize - 1) / batchSize);
+        Semaphore slots = new Semaphore(concurrency);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicLong jobsWritten = new AtomicLong();
+        AtomicLong linksWritten = new AtomicLong();
+        for (int batch = 0; batch < batches && failure.get() == null; batch++) {
+            slots.acquire();
+            int current = batch;
+            workers.execute(
+                    () -> {
+                        try {
+                            int links = writeJobPosts(plan, current);
+                            linksWritten.addAndGet(links);
+                            logProgress(jobsWritten, plan.jobsIn(current), jobCount);
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+        }
+        // all permits are back once the last batch has been written
+        slots.acquire(concurrency);
+        slots.release(concurrency);
+        if (failure.get() != null) {
+            throw new IllegalStateException(
+                    "Dataset generation stopped after " + jobsWritten.get() + " job posts",
+                    failure.get());
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        log.info(
+                "Generated {} companies, {} job posts and {} skill links in {} s ({} jobs/s)",
+                companyCount,
+                jobCount,
+                linksWritten.get(),
+                Math.round(seconds),
+                String.format("%.0f", jobCount / Math.max(seconds, 1e-3)));
+        if (reloadIndexes) {
+            jobPostIndexer.load();
+            skillJobIndex.load();
+        }
+    }
+
+    private void writeCompanies(int companyCount, int batchSize) {
+        List<CompanyDTO> companies = new ArrayList<>(Math.min(companyCount, batchSize));
+        for (int i = 0; i < companyCount; i++) {
+            String name = companyName(i);
+            CompanyDTO company = new CompanyDTO();
+            company.setId(companyId(properties.getSeed(), i));
+            company.setName(name);
+            company.setWebsiteUrl("www." + slug(name) + ".example");
+            company.setDescription(
+                    name + " builds software for " + INDUSTRIES[i % INDUSTRIES.length] + ".");
+            companies.add(company);
+            if (companies.size() == batchSize || i == companyCount - 1) {
+                companyService.createAll(companies);
+                companies = new ArrayList<>(Math.min(companyCount - i - 1, batchSize));
+            }
+        }
+    }
+
+    /** Generates and writes one batch of job posts and their skill links. */
+    private int writeJobPosts(Plan plan, int batch) {
+        SplittableRandom random = new SplittableRandom(plan.seed() * 1_000_003L + batch);
+        int first = batch * plan.batchSize();
+        int count = plan.jobsIn(batch);
+        List<JobPostRecord> jobPosts = new ArrayList<>(count);
+        List<JobPostSkillRecord> links = new ArrayList<>();
+        Map<String, List<String>> skillTagIdsByJobPostId = new LinkedHashMap<>();
+        for (int i = first; i < first + count; i++) {
+            List<SkillTagRecord> skills = pickSkills(plan, random);
+            JobPostRecord jobPost = jobPost(plan, random, i, skills);
+            jobPosts.add(jobPost);
+            List<String> skillTagIds = new ArrayList<>(skills.size());
+            for (int k = 0; k < skills.size(); k++) {
+                SkillTagRecord skill = skills.get(k);
+                links.add(
+                        new JobPostSkillRecord(
+                                linkId(jobPost.id(), k), jobPost.id(), skill.id(), ""));
+                skillTagIds.add(skill.id());
+            }
+            skillTagIdsByJobPostId.put(jobPost.id(), skillTagIds);
+        }
+        // links go after their job posts, so a reader never finds a link to a missing job post
+        jobPostContainer.saveRecords(jobPosts);
+        jobPostSkillContainer.saveRecords(links);
+        jobPosts.forEach(jobPostIndexer::put);
+        skillTagIdsByJobPostId.forEach(skillJobIndex::addSkills);
+        return links.size();
+    }
+
+    private List<SkillTagRecord> pickSkills(Plan plan, SplittableRandom random) {
+        int min = Math.max(1, properties.getMinSkillsPerJob());
+        int max = Math.max(min, properties.getMaxSkillsPerJob());
+        int wanted = Math.min(plan.skillTags().size(), random.nextInt(min, max + 1));
+        Set<SkillTagRecord> skills = new LinkedHashSet<>();
+        for (int attempt = 0; skills.size() < wanted && attempt < wanted * 20; attempt++) {
+            skills.add(plan.skillTags().get(plan.skillPopularity().sample(random)));
+        }
+        return new ArrayList<>(skills);
+    }
+
+    private JobPostRecord jobPost(
+            Plan plan, SplittableRandom random, int index, List<SkillTagRecord> skills) {
+        int seniority = weighted(random, SENIORITY_WEIGHTS);
+        int jobType = weighted(random, JOB_TYPE_WEIGHTS);
+        WorkModel workModel = WORK_MODELS[weighted(random, WORK_MODEL_WEIGHTS)];
+        int company = plan.companySize().sample(random);
+        String companyName = companyName(company);
+        String location = LOCATIONS[plan.locations().sample(random)];
+        String primarySkill = skills.get(0).name();
+        String title =
+                SENIORITIES[seniority]
+                        + ROLES[random.nextInt(ROLES.length)]
+                        + (random.nextBoolean() ? " (" + primarySkill + ")" : "");
+        double salary =
+                SENIORITY_MEDIAN_SALARIES[seniority]
+                        * JOB_TYPE_SALARY_FACTORS[jobType]
+                        * Math.exp(0.3 * random.nextGaussian());
+        long ageSeconds = random.nextLong(MAX_AGE_SECONDS);
+        return new JobPostRecord(
+                jobPostId(ageSeconds, random.nextInt(1000), index),
+                title,
+                description(random, companyName, title, location, workModel, seniority, skills),
+                JOB_TYPES[jobType],
+                Math.round(salary / 100) * 100.0,
+                plan.now().minusSeconds(ageSeconds),
+                companyId(plan.seed(), company),
+                workModel,
+                location,
+                "https://careers." + slug(companyName) + ".example/jobs/" + index);
+    }
+
+    private static String description(
+            SplittableRandom random,
+            String companyName,
+            String title,
+            String location,
+            WorkModel workModel,
+            int seniority,
+            List<SkillTagRecord> skills) {
+        StringBuilder text = new StringBuilder(1024);
+        text.append(companyName)
+                .append(" is looking for a ")
+                .append(title)
+                .append(
+                        workModel == WorkModel.REMOTE
+                                ? " to join us remotely."
+                                : " to join our team in " + location + ".")
+                .append("\n\nWhat You Will Do\n\n");
+        int firstDuty = random.nextInt(DUTIES.length);
+        for (int i = 0; i < 3; i++) {
+            String skill = skills.get(i % skills.size()).name();
+            text.append(String.format(DUTIES[(firstDuty + i) % DUTIES.length], skill)).append('\n');
+        }
+        text.append("\nWho You Are\n\n");
+        int years = 1 + seniority * 2;
+        int requirements = Math.max(1, skills.size() - 1);
+        for (int i = 0; i < requirements; i++) {
+            String template = REQUIREMENTS[random.nextInt(REQUIREMENTS.length)];
+            text.append(String.format(template, years, skills.get(i).name())).append('\n');
+        }
+        text.append(QUALITIES[random.nextInt(QUALITIES.length)]).append('\n');
+        if (skills.size() > 1) {
+            text.append("\nNice to have: experience with ")
+                    .append(skills.get(skills.size() - 1).name())
+                    .append(".\n");
+        }
+        return text.toString();
+    }
+
+    private static void logProgress(AtomicLong jobsWritten, int jobs, int total) {
+        long done = jobsWritten.addAndGet(jobs);
+        if ((done - jobs) * 10 / total != done * 10 / total) {
+            log.info("Dataset generation: {} of {} job posts written", done, total);
+        }
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = Arrays.stream(weights).sum();
+        int pick = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String companyName(int index) {
+        int combinations = COMPANY_PREFIXES.length * COMPANY_SUFFIXES.length;
+        String name =
+                COMPANY_PREFIXES[index % COMPANY_PREFIXES.length]
+                        + " "
+                        + COMPANY_SUFFIXES[
+                                (index / COMPANY_PREFIXES.length) % COMPANY_SUFFIXES.length];
+        return index < combinations ? name : name + " " + (index / combinations + 1);
+    }
+
+    private static String slug(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+
+    private static String companyId(long seed, int index) {
+        return String.format("com_gen%d_%05d", seed, index);
+    }
+
+    /**
+     * Returns a TSID, like {@link JobPostGridDbService#nextId()}, whose time is {@code ageSeconds}
+     * (plus {@code millis}) before {@link #ID_ANCHOR} rather than before the run, so ids sort like
+     * {@code datePosted} and the same seed gives the same ids whenever it runs. The job index fills
+     * the random bits, keeping ids of job posts of the same millisecond apart.
+     */
+    private static String jobPostId(long ageSeconds, int millis, int index) {
+        long time = ID_ANCHOR.toEpochMilli() - ageSeconds * 1000 - millis - Tsid.TSID_EPOCH;
+        return Tsid.from((time << TSID_RANDOM_BITS) | (index & TSID_RANDOM_MASK)).format("job_%s");
+    }
+
+    private static String linkId(String jobPostId, int skillIndex) {
+        return "jps_" + jobPostId.substring("job_".length()) + "_" + skillIndex;
+    }
+
+    /** Everything the batches of one run share; read-only. */
+    private record Plan(
+            long seed,
+            int jobs,
+            int batchSize,
+            List<SkillTagRecord> skillTags,
+            Zipf skillPopularity,
+            Zipf companySize,
+            Zipf locations,
+            LocalDateTime now) {
+
+        int jobsIn(int batch) {
+            return Math.min(batchSize, jobs - batch * batchSize);
+        }
+    }
+
+    /** Ranks {@code 0..n-1}, drawn with a probability proportional to {@code 1 / (rank + 1)^s}. */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
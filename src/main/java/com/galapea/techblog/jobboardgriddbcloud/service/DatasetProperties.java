@@ -0,0 +1,108 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobboard.dataset")
+public class DatasetProperties {
+
+    /** Whether a dataset is generated once the schema is ready. */
+    private boolean generateOnStartup = false;
+
+    /** Companies generated; job posts are spread over them by a Zipf distribution. */
+    private int companies = 100;
+
+    /** Job posts generated. */
+    private int jobs = 10_000;
+
+    /** Fewest skill links per job post. */
+    private int minSkillsPerJob = 2;
+
+    /** Most skill links per job post. */
+    private int maxSkillsPerJob = 8;
+
+    /** Zipf exponent of skill popularity; 0 picks every skill equally often. */
+    private double skillExponent = 1.1;
+
+    /** Job posts written per {@code registerRows} request, with their skill links. */
+    private int batchSize = 1000;
+
+    /** Batches generated and written at the same time. */
+    private int concurrency = 4;
+
+    /** Seed of the generator; the same seed writes the same rows with the same ids. */
+    private long seed = 42;
+
+    public boolean isGenerateOnStartup() {
+        return this.generateOnStartup;
+    }
+
+    public void setGenerateOnStartup(boolean generateOnStartup) {
+        this.generateOnStartup = generateOnStartup;
+    }
+
+    public int getCompanies() {
+        return this.companies;
+    }
+
+    public void setCompanies(int companies) {
+        this.companies = companies;
+    }
+
+    public int getJobs() {
+        return this.jobs;
+    }
+
+    public void setJobs(int jobs) {
+        this.jobs = jobs;
+    }
+
+    public int getMinSkillsPerJob() {
+        return this.minSkillsPerJob;
+    }
+
+    public void setMinSkillsPerJob(int minSkillsPerJob) {
+        this.minSkillsPerJob = minSkillsPerJob;
+    }
+
+    public int getMaxSkillsPerJob() {
+        return this.maxSkillsPerJob;
+    }
+
+    public void setMaxSkillsPerJob(int maxSkillsPerJob) {
+        this.maxSkillsPerJob = maxSkillsPerJob;
+    }
+
+    public double getSkillExponent() {
+        return this.skillExponent;
+    }
+
+    public void setSkillExponent(double skillExponent) {
+        this.skillExponent = skillExponent;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,36 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobboard.facets")
+public class JobFacetProperties {
+
+    /**
+     * Upper bounds of the salary bands, in ascending order. {@code 5000,10000} gives the bands
+     * "up to 5,000", "5,000 to 10,000" and "10,000 and more".
+     */
+    private List<Double> salaryBands = List.of(5_000d, 10_000d, 20_000d);
+
+    /** Number of locations shown in the location facet, most frequent first. */
+    private int maxLocations = 10;
+
+    public List<Double> getSalaryBands() {
+        return this.salaryBands;
+    }
+
+    public void setSalaryBands(List<Double> salaryBands) {
+        this.salaryBands = salaryBands;
+    }
+
+    public int getMaxLocations() {
+        return this.maxLocations;
+    }
+
+    public void setMaxLocations(int maxLocations) {
+        this.maxLocations = maxLocations;
+    }
+}
@@ -0,0 +1,92 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudClient;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowDecoder;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectHandler;
+
+/**
+ * Read-only access to the data needed to render a page of job listings.
+ * <p>
+ * The companies and skills of every job on the page are fetched with two SQL statements sent in
+ * a single {@code /sql/dml/query} request, so the number of GridDB calls per page does not grow
+ * with the number of jobs.
+ * </p>
+ */
+@Component
+@MeteredContainer("JobListing")
+public class JobListingContainer {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private static final RowDecoder<JobPostSkillRecord> SKILL_ROW_DECODER =
+            row ->
+                    new JobPostSkillRecord(
+                            row.nextString(), row.nextString(), row.nextString(), row.nextString());
+    private final GridDbCloudClient gridDbCloudClient;
+
+    public JobListingContainer(GridDbCloudClient gridDbCloudClient) {
+        this.gridDbCloudClient = gridDbCloudClient;
+    }
+
+    public JobListingRows getListingRows(
+            Collection<String> jobPostIds, Collection<String> companyIds) {
+        if (jobPostIds.isEmpty()) {
+            return new JobListingRows(List.of(), List.of());
+        }
+        // @formatter:off
+        String companyStmt =
+                """
+            SELECT id, name, websiteUrl, description \
+            FROM JBCompany \
+            WHERE id IN (%s)"""
+                        .formatted(toInList(companyIds));
+        String skillStmt =
+                """
+            SELECT jps.id, jps.jobPostId, st.id, st.name \
+            FROM JBJobPostSkill jps \
+            JOIN JBSkillTag st ON jps.skillTagId = st.id \
+            WHERE jps.jobPostId IN (%s) \
+            ORDER BY st.name ASC"""
+                        .formatted(toInList(jobPostIds));
+        // @formatter:on
+        List<CompanyRecord> companies = new ArrayList<>();
+        List<JobPostSkillRecord> skills = new ArrayList<>();
+        this.gridDbCloudClient.select(
+                new SQLSelectHandler<>(
+                        new GridDbCloudSQLStmt(companyStmt),
+                        CompanyContainer.CODEC,
+                        companies::add),
+                new SQLSelectHandler<>(
+                        new GridDbCloudSQLStmt(skillStmt), SKILL_ROW_DECODER, skills::add));
+        log.info(
+                "Fetched {} companies and {} skills for {} job posts",
+                companies.size(),
+                skills.size(),
+                jobPostIds.size());
+        return new JobListingRows(companies, skills);
+    }
+
+    private String toInList(Collection<String> values) {
+        if (values.isEmpty()) {
+            return "''";
+        }
+        return values.stream()
+                .distinct()
+                .map(value -> "'" + value.replace("'", "''") + "'")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Rows fetched in one round trip for a page of job listings.
+     */
+    public record JobListingRows(List<CompanyRecord> companies, List<JobPostSkillRecord> skills) {}
+}
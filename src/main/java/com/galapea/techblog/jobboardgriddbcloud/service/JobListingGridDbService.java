@@ -0,0 +1,74 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.CompanyDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostDTO;
+
+@Service
+public class JobListingGridDbService {
+
+    private final JobListingContainer jobListingContainer;
+
+    public JobListingGridDbService(JobListingContainer jobListingContainer) {
+        this.jobListingContainer = jobListingContainer;
+    }
+
+    /**
+     * Loads the companies and skill names of all given job posts in a single GridDB request.
+     */
+    public JobListingDetails findDetails(final List<JobPostDTO> jobPosts) {
+        Set<String> jobPostIds = new LinkedHashSet<>();
+        Set<String> companyIds = new LinkedHashSet<>();
+        for (JobPostDTO jobPost : jobPosts) {
+            jobPostIds.add(jobPost.getId());
+            companyIds.add(jobPost.getCompanyId());
+        }
+        JobListingContainer.JobListingRows rows =
+                jobListingContainer.getListingRows(jobPostIds, companyIds);
+        Map<String, CompanyDTO> companies =
+                rows.companies().stream()
+                        .map(this::mapToDTO)
+                        .collect(
+                                Collectors.toMap(
+                                        CompanyDTO::getId,
+                                        Function.identity(),
+                                        (first, second) -> first));
+        Map<String, List<String>> skillNames =
+                rows.skills().stream()
+                        .collect(
+                                Collectors.groupingBy(
+                                        JobPostSkillRecord::jobPostId,
+                                        Collectors.mapping(
+                                                JobPostSkillRecord::skillName,
+                                                Collectors.toList())));
+        return new JobListingDetails(companies, skillNames);
+    }
+
+    private CompanyDTO mapToDTO(final CompanyRecord company) {
+        CompanyDTO companyDTO = new CompanyDTO();
+        companyDTO.setId(company.id());
+        companyDTO.setName(company.name());
+        companyDTO.setWebsiteUrl(company.websiteUrl());
+        companyDTO.setDescription(company.description());
+        return companyDTO;
+    }
+
+    /**
+     * Companies keyed by id and skill names keyed by job post id for one page of job listings.
+     */
+    public record JobListingDetails(
+            Map<String, CompanyDTO> companies, Map<String, List<String>> skillNames) {
+
+        public List<String> skillNamesOf(String jobPostId) {
+            return skillNames.getOrDefault(jobPostId, List.of());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.webapi.ContainerUpdateResult;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudClient;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowSource;
+
+/**
+ * Writes a job post together with its skill links.
+ * <p>
+ * The {@code JBJobPost} row and the {@code JBJobPostSkill} rows are registered with one
+ * multi-container request, so saving the edit form costs a single PUT instead of one per
+ * container.
+ * </p>
+ */
+@Component
+@MeteredContainer("JobPostAggregate")
+public class JobPostAggregateContainer {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final GridDbCloudClient gridDbCloudClient;
+
+    public JobPostAggregateContainer(GridDbCloudClient gridDbCloudClient) {
+        this.gridDbCloudClient = gridDbCloudClient;
+    }
+
+    public void save(JobPostRecord jobPost, List<JobPostSkillRecord> jobPostSkills) {
+        Map<String, RowSource> rows = new LinkedHashMap<>();
+        rows.put(JobPostContainer.TBL_NAME, JobPostContainer.CODEC.rowsOf(List.of(jobPost)));
+        if (!jobPostSkills.isEmpty()) {
+            rows.put(
+                    JobPostSkillContainer.TBL_NAME,
+                    JobPostSkillContainer.CODEC.rowsOf(jobPostSkills));
+        }
+        ContainerUpdateResult[] results =
+                this.gridDbCloudClient.registerRowsMultipleContainers(rows);
+        log.info(
+                "Saved job post {} with {} new skills: {}",
+                jobPost.id(),
+                jobPostSkills.size(),
+                (Object) results);
+    }
+}
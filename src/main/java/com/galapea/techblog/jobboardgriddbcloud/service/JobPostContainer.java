@@ -1,9 +1,11 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.text.StringEscapeUtils;
@@ -20,39 +22,73 @@ import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbContainerDefinition;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectResponse;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowWriteBuffer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectHandler;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsResponse;
 
 @Component
+@MeteredContainer("JBJobPost")
 public class JobPostContainer {
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final GridDbCloudClient gridDbCloudClient;
-    private static final String TBL_NAME = "JBJobPost";
+    private final RowWriteBuffer rowWriteBuffer;
+    static final String TBL_NAME = "JBJobPost";
+    private static final List<GridDbColumn> COLUMNS =
+            List.of(
+                    new GridDbColumn("id", "STRING", Set.of("TREE")),
+                    new GridDbColumn("title", "STRING"),
+                    new GridDbColumn("description", "STRING"),
+                    new GridDbColumn("jobType", "STRING", Set.of("TREE")),
+                    new GridDbColumn("maximumMonthlySalary", "DOUBLE"),
+                    new GridDbColumn("datePosted", "TIMESTAMP"),
+                    new GridDbColumn("companyId", "STRING", Set.of("TREE")),
+                    new GridDbColumn("workModel", "STRING", Set.of("TREE")),
+                    new GridDbColumn("location", "STRING"),
+                    new GridDbColumn("applyUrl", "STRING"));
+    static final RowCodec<JobPostRecord> CODEC =
+            RowCodec.builder(COLUMNS)
+                    .enumColumn("jobType", JobPostType.class)
+                    .enumColumn("workModel", WorkModel.class)
+                    .build(
+                            cells ->
+                                    new JobPostRecord(
+                                            cells.get(0),
+                                            cells.get(1),
+                                            cells.get(2),
+                                            cells.get(3),
+                                            cells.get(4),
+                                            cells.get(5),
+                                            cells.get(6),
+                                            cells.get(7),
+                                            cells.get(8),
+                                            cells.get(9)),
+                            record ->
+                                    new Object[] {
+                                        record.id(),
+                                        record.title(),
+                                        record.description(),
+                                        record.jobType(),
+                                        record.maximumMonthlySalary(),
+                                        record.datePosted(),
+                                        record.companyId(),
+                                        record.workModel(),
+                                        record.location(),
+                                        record.applyUrl()
+                                    });
 
-    public JobPostContainer(GridDbCloudClient gridDbCloudClient) {
+    public JobPostContainer(GridDbCloudClient gridDbCloudClient, RowWriteBuffer rowWriteBuffer) {
         this.gridDbCloudClient = gridDbCloudClient;
+        this.rowWriteBuffer = rowWriteBuffer;
     }
 
     public void createTable() {
         log.info("Creating table " + TBL_NAME + " in GridDB...");
-        List<GridDbColumn> columns =
-                List.of(
-                        new GridDbColumn("id", "STRING", Set.of("TREE")),
-                        new GridDbColumn("title", "STRING"),
-                        new GridDbColumn("description", "STRING"),
-                        new GridDbColumn("jobType", "STRING", Set.of("TREE")),
-                        new GridDbColumn("maximumMonthlySalary", "DOUBLE"),
-                        new GridDbColumn("datePosted", "TIMESTAMP"),
-                        new GridDbColumn("companyId", "STRING", Set.of("TREE")),
-                        new GridDbColumn("workModel", "STRING", Set.of("TREE")),
-                        new GridDbColumn("location", "STRING"),
-                        new GridDbColumn("applyUrl", "STRING"));
-
         GridDbContainerDefinition containerDefinition =
-                GridDbContainerDefinition.build(TBL_NAME, columns);
+                GridDbContainerDefinition.build(TBL_NAME, COLUMNS);
         this.gridDbCloudClient.createContainer(containerDefinition);
-        log.info("Created table " + TBL_NAME + " with columns: {}", columns);
+        log.info("Created table " + TBL_NAME + " with columns: {}", COLUMNS);
     }
 
     private void post(String uri, Object body) {
@@ -118,78 +154,80 @@ public class JobPostContainer {
     }
 
     public void saveRecords(List<JobPostRecord> jobPostRecords) {
-        // Initialize a StringBuilder to create the JSON-like array representation
-        StringBuilder sb = new StringBuilder();
-        sb.append("["); // Start the outer array
-        for (int i = 0; i < jobPostRecords.size(); i++) {
-            JobPostRecord record = jobPostRecords.get(i);
-            sb.append("["); // Start the inner array (each record)
-            // Append each record field in order
-            sb.append("\"").append(record.id()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(StringEscapeUtils.escapeJson(record.title())).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(StringEscapeUtils.escapeJson(record.description())).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.jobType().name()).append("\"");
-            sb.append(", ");
-            sb.append(record.maximumMonthlySalary());
-            sb.append(", ");
-            sb.append("\"")
-                    .append(DateTimeUtil.formatToZoneDateTimeString(record.datePosted()))
-                    .append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.companyId()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.workModel().name()).append("\"");
-            sb.append(", ");
-            if (record.location() != null) {
-                sb.append("\"")
-                        .append(StringEscapeUtils.escapeJson(record.location()))
-                        .append("\"");
-            } else {
-                sb.append("null");
-            }
-            sb.append(", ");
-            if (record.applyUrl() != null) {
-                sb.append("\"").append(record.applyUrl()).append("\"");
-            } else {
-                sb.append("null");
-            }
-            sb.append("]"); // End the inner array
-            // Add a comma between record, except for the last one
-            if (i < jobPostRecords.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]"); // End the outer array
-        String result = sb.toString();
-        log.info("JobPosts array: {}", result);
-        this.gridDbCloudClient.registerRows(TBL_NAME, result);
+        log.info("Registering {} job posts in GridDB", jobPostRecords.size());
+        this.rowWriteBuffer.write(TBL_NAME, jobPostRecords.size(), CODEC.rowsOf(jobPostRecords));
+    }
+
+    /** Passes every job post to {@code consumer}, reading {@code pageSize} rows at a time. */
+    public void forEach(int pageSize, Consumer<JobPostRecord> consumer) {
+        long count =
+                this.gridDbCloudClient.scanRows(
+                        TBL_NAME, pageSize, CODEC, JobPostRecord::id, consumer);
+        log.info("Scanned {} job posts from GridDB", count);
     }
 
     public List<JobPostRecord> getAll() {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(50L).sort("id ASC").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<JobPostRecord> jobPosts = convertResponseToRecord(response.getRows());
+        List<JobPostRecord> jobPosts = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPosts::add);
         log.info("Fetched {} job posts from GridDB", jobPosts.size());
         return jobPosts;
     }
 
+    /**
+     * Returns up to {@code limit} job posts, newest first, that come after {@code after} (or from
+     * the start when it is {@code null}). The {@code total} of the page is the number of job posts
+     * from the cursor to the end of the listing.
+     */
+    public PageRows getPage(JobPostCursor after, int limit) {
+        return getPage(after, limit, null);
+    }
+
+    /**
+     * Like {@link #getPage(JobPostCursor, int)}, but only returns and counts the job posts that
+     * also satisfy the TQL {@code filterCondition}, if it is not {@code null}.
+     */
+    public PageRows getPage(JobPostCursor after, int limit, String filterCondition) {
+        AcquireRowsRequest.Builder requestBody =
+                AcquireRowsRequest.builder().limit((long) limit).sort("datePosted DESC, id DESC");
+        List<String> conditions = new ArrayList<>(2);
+        if (filterCondition != null) {
+            conditions.add("(" + filterCondition + ")");
+        }
+        if (after != null) {
+            String datePosted =
+                    "TIMESTAMP('"
+                            + DateTimeUtil.formatToZoneDateTimeString(after.datePosted())
+                            + "')";
+            conditions.add(
+                    "(datePosted < "
+                            + datePosted
+                            + " OR (datePosted == "
+                            + datePosted
+                            + " AND id < '"
+                            + after.id()
+                            + "'))");
+        }
+        if (!conditions.isEmpty()) {
+            requestBody.condition(String.join(" AND ", conditions));
+        }
+        List<JobPostRecord> jobPosts = new ArrayList<>(limit);
+        long total =
+                this.gridDbCloudClient.acquireRows(
+                        TBL_NAME, requestBody.build(), CODEC, jobPosts::add);
+        log.info(
+                "Fetched page of {} job posts ({} from cursor) from GridDB",
+                jobPosts.size(),
+                total);
+        return new PageRows(jobPosts, total);
+    }
+
     public Optional<JobPostRecord> getOne(String id) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(1L).condition("id == \'" + id + "\'").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<JobPostRecord> jobPosts = convertResponseToRecord(response.getRows());
+        List<JobPostRecord> jobPosts = new ArrayList<>(1);
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPosts::add);
         log.info("Fetched {} job posts from GridDB", jobPosts.size());
         return jobPosts.isEmpty() ? Optional.empty() : Optional.of(jobPosts.get(0));
     }
@@ -201,16 +239,32 @@ public class JobPostContainer {
                         .condition("companyId == \'" + companyId + "\'")
                         .sort("datePosted DESC")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<JobPostRecord> jobPosts = convertResponseToRecord(response.getRows());
+        List<JobPostRecord> jobPosts = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPosts::add);
         log.info("Fetched {} job posts for company {} from GridDB", jobPosts.size(), companyId);
         return jobPosts;
     }
 
+    /** Returns the job posts with the given ids, newest first. */
+    public List<JobPostRecord> getByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String stmt =
+                "SELECT * FROM "
+                        + TBL_NAME
+                        + " WHERE id IN ("
+                        + ids.stream()
+                                .map(id -> "'" + id.replace("'", "''") + "'")
+                                .collect(Collectors.joining(", "))
+                        + ") ORDER BY datePosted DESC, id DESC";
+        List<JobPostRecord> records = new ArrayList<>(ids.size());
+        this.gridDbCloudClient.select(
+                new SQLSelectHandler<>(new GridDbCloudSQLStmt(stmt), CODEC, records::add));
+        log.info("Fetched {} of {} job posts by id", records.size(), ids.size());
+        return records;
+    }
+
     public List<JobPostRecord> searchBySkill(String skill) {
         // @formatter:off
         String stmt =
@@ -225,73 +279,20 @@ public class JobPostContainer {
         """
                         .formatted(skill.toLowerCase());
         // @formatter:on
-        List<GridDbCloudSQLStmt> statementList = List.of(new GridDbCloudSQLStmt(stmt));
-        SQLSelectResponse[] response = this.gridDbCloudClient.select(statementList);
-        if (response == null || response.length != statementList.size()) {
-            log.error(
-                    "Failed to fetch jobs by skills {}. Response is null or size mismatch. Expected: {}, Actual: {}",
-                    skill,
-                    statementList.size(),
-                    response != null ? response.length : 0);
-            return List.of();
-        }
-
-        List<List<Object>> results = response[0].getResults();
-        if (results.isEmpty()) {
+        List<JobPostRecord> records = new ArrayList<>();
+        this.gridDbCloudClient.select(
+                new SQLSelectHandler<>(new GridDbCloudSQLStmt(stmt), CODEC, records::add));
+        if (records.isEmpty()) {
             log.info("No result for searching skill: {}", skill);
             return List.of();
         }
-
-        List<JobPostRecord> records = convertResponseToRecord(results);
         log.info("Fetched {} records to search skill: {}", records.size(), skill);
         return records;
     }
 
-    private List<JobPostRecord> convertResponseToRecord(List<List<Object>> rows) {
-        List<JobPostRecord> results =
-                rows.stream()
-                        .map(
-                                row -> {
-                                    try {
-                                        String id = row.get(0).toString();
-                                        String title = row.get(1).toString();
-                                        String description = row.get(2).toString();
-                                        JobPostType jobType =
-                                                JobPostType.valueOf(row.get(3).toString());
-                                        Double maximumMonthlySalary =
-                                                Double.valueOf(row.get(4).toString());
-                                        LocalDateTime datePosted =
-                                                DateTimeUtil.parseToLocalDateTime(
-                                                        row.get(5).toString());
-                                        String companyId = row.get(6).toString();
-                                        WorkModel workModel =
-                                                WorkModel.valueOf(row.get(7).toString());
-                                        String location =
-                                                (row.get(8) != null) ? row.get(8).toString() : null;
-                                        String applyUrl =
-                                                (row.get(9) != null) ? row.get(9).toString() : null;
-
-                                        return new JobPostRecord(
-                                                id,
-                                                title,
-                                                description,
-                                                jobType,
-                                                maximumMonthlySalary,
-                                                datePosted,
-                                                companyId,
-                                                workModel,
-                                                location,
-                                                applyUrl);
-                                    } catch (Exception e) {
-                                        log.error(
-                                                "Error parsing job post row: {}. Error: {}",
-                                                row.toString(),
-                                                e.getMessage());
-                                        return null;
-                                    }
-                                })
-                        .filter(r -> r != null)
-                        .collect(Collectors.toList());
-        return results;
-    }
+    /**
+     * One page of job posts and the number of job posts from the start of the page to the end of
+     * the listing.
+     */
+    public record PageRows(List<JobPostRecord> rows, long total) {}
 }
@@ -0,0 +1,48 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+import com.galapea.techblog.jobboardgriddbcloud.util.DateTimeUtil;
+
+/**
+ * Position in the job listing, which is ordered by {@code datePosted DESC, id DESC}. The next page
+ * starts right after the job with this date and id, so fetching it costs the same however deep the
+ * listing has been scrolled.
+ */
+public record JobPostCursor(LocalDateTime datePosted, String id) {
+    private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9_]+");
+
+    public JobPostCursor {
+        if (datePosted == null || id == null || !ID_PATTERN.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid job post cursor");
+        }
+    }
+
+    public static JobPostCursor after(JobPostRecord jobPost) {
+        return new JobPostCursor(jobPost.datePosted(), jobPost.id());
+    }
+
+    /** Opaque, URL-safe form used as the {@code cursor} request parameter. */
+    public String encode() {
+        String value = DateTimeUtil.formatToZoneDateTimeString(datePosted) + "|" + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static JobPostCursor decode(String cursor) {
+        try {
+            String value =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new JobPostCursor(
+                    DateTimeUtil.parseToLocalDateTime(value.substring(0, separator)),
+                    value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid job post cursor", e);
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostType;
+import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
+
+/**
+ * Columnar in-memory projection of the job catalog used for faceted filtering.
+ * <p>
+ * Each filterable column is held in its own primitive array, one slot per job post: job type and
+ * work model as enum ordinals, the salary as its band, and the location as a code into a
+ * dictionary of distinct locations. A query walks these arrays once and, in the same pass, counts
+ * the values of every facet among the job posts that match all other facets, so selecting a value
+ * never hides the alternatives of the same facet. No GridDB request is made per facet.
+ * </p>
+ * <p>
+ * Until the index is loaded, {@link #toCondition} expresses the same filter in TQL. Both read the
+ * filter through {@link #salaryBands} and {@link #locationKey}, so a listing returns the same job
+ * posts either way: salary band indexes out of range are ignored, and locations match regardless
+ * of case and surrounding whitespace.
+ * </p>
+ * <p>
+ * A load fills new columns from the scan while the current ones keep answering queries, then
+ * swaps them in. Job posts put meanwhile are applied to both, so none is lost by the swap.
+ * </p>
+ */
+@Component
+public class JobPostFacetIndex implements JobPostIndex {
+    private static final Logger log = LoggerFactory.getLogger(JobPostFacetIndex.class);
+    private static final JobPostType[] JOB_TYPES = JobPostType.values();
+    private static final WorkModel[] WORK_MODELS = WorkModel.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final double[] salaryBounds;
+    private final int maxLocations;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all fields below are guarded by lock
+    private Columns columns = new Columns();
+    private boolean ready;
+    // job posts put while a load scans, or null when no load is running
+    private List<JobPostRecord> putsDuringLoad;
+
+    public JobPostFacetIndex(JobFacetProperties properties) {
+        this.salaryBounds =
+                properties.getSalaryBands().stream()
+                        .mapToDouble(Double::doubleValue)
+                        .sorted()
+                        .toArray();
+        this.maxLocations = properties.getMaxLocations();
+    }
+
+    @Override
+    public Loader startLoad() {
+        lock.writeLock().lock();
+        try {
+            putsDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Columns loaded = new Columns();
+        return new Loader() {
+            @Override
+            public void add(JobPostRecord jobPost) {
+                loaded.set(jobPost);
+            }
+
+            @Override
+            public void finish() {
+                int replayed;
+                lock.writeLock().lock();
+                try {
+                    // the scan may have read them before they were put, applying them again is
+                    // harmless
+                    putsDuringLoad.forEach(loaded::set);
+                    replayed = putsDuringLoad.size();
+                    putsDuringLoad = null;
+                    columns = loaded;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info(
+                        "Loaded job post facet index: {} job posts, {} locations, {} changes"
+                                + " replayed",
+                        loaded.size,
+                        loaded.locationLabels.size(),
+                        replayed);
+            }
+
+            @Override
+            public void abort() {
+                lock.writeLock().lock();
+                try {
+                    putsDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void put(JobPostRecord jobPost) {
+        lock.writeLock().lock();
+        try {
+            columns.set(jobPost);
+            if (putsDuringLoad != null) {
+                putsDuringLoad.add(jobPost);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the first {@code limit} job posts after {@code after} that match
+     * {@code filter}, ordered by {@code datePosted DESC, id DESC}, together with the facet counts
+     * of the whole filtered listing.
+     */
+    public FacetedPage query(JobPostFilter filter, JobPostCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            boolean[] jobTypeMask =
+                    filter.jobTypes().isEmpty() ? null : new boolean[JOB_TYPES.length];
+            filter.jobTypes().forEach(jobType -> jobTypeMask[jobType.ordinal()] = true);
+            boolean[] workModelMask =
+                    filter.workModels().isEmpty() ? null : new boolean[WORK_MODELS.length];
+            filter.workModels().forEach(workModel -> workModelMask[workModel.ordinal()] = true);
+            List<Integer> selectedBands = salaryBands(filter);
+            boolean[] salaryMask = selectedBands.isEmpty() ? null : new boolean[bandCount()];
+            selectedBands.forEach(band -> salaryMask[band] = true);
+            List<String> selectedLocations = locationKeys(filter);
+            boolean[] locationMask =
+                    selectedLocations.isEmpty() ? null : new boolean[current.locationLabels.size()];
+            selectedLocations.stream()
+                    .map(current.locationCodes::get)
+                    .filter(code -> code != null)
+                    .forEach(code -> locationMask[code] = true);
+
+            int[] jobTypeCounts = new int[JOB_TYPES.length];
+            int[] workModelCounts = new int[WORK_MODELS.length];
+            int[] salaryCounts = new int[bandCount()];
+            int[] locationCounts = new int[current.locationLabels.size()];
+            long afterPostedAt = after == null ? 0 : epochMillis(after.datePosted());
+            Comparator<Integer> listingOrder =
+                    Comparator.<Integer>comparingLong(row -> current.postedAt[row])
+                            .thenComparing(row -> current.ids[row]);
+            PriorityQueue<Integer> page = new PriorityQueue<>(listingOrder);
+            long total = 0;
+            long remaining = 0;
+            for (int row = 0; row < current.size; row++) {
+                boolean jobTypeMatch = matches(jobTypeMask, current.jobTypes[row]);
+                boolean workModelMatch = matches(workModelMask, current.workModels[row]);
+                boolean salaryMatch = matches(salaryMask, current.salaryBands[row]);
+                boolean locationMatch = matches(locationMask, current.locations[row]);
+                int misses =
+                        (jobTypeMatch ? 0 : 1)
+                                + (workModelMatch ? 0 : 1)
+                                + (salaryMatch ? 0 : 1)
+                                + (locationMatch ? 0 : 1);
+                if (misses > 1) {
+                    continue;
+                }
+                // a row that misses exactly one facet still counts towards that facet's values
+                if (workModelMatch && salaryMatch && locationMatch) {
+                    increment(jobTypeCounts, current.jobTypes[row]);
+                }
+                if (jobTypeMatch && salaryMatch && locationMatch) {
+                    increment(workModelCounts, current.workModels[row]);
+                }
+                if (jobTypeMatch && workModelMatch && locationMatch) {
+                    increment(salaryCounts, current.salaryBands[row]);
+                }
+                if (jobTypeMatch && workModelMatch && salaryMatch) {
+                    increment(locationCounts, current.locations[row]);
+                }
+                if (misses > 0) {
+                    continue;
+                }
+                total++;
+                if (after != null
+                        && (current.postedAt[row] > afterPostedAt
+                                || (current.postedAt[row] == afterPostedAt
+                                        && current.ids[row].compareTo(after.id()) >= 0))) {
+                    continue;
+                }
+                remaining++;
+                page.add(row);
+                if (page.size() > limit) {
+                    page.poll();
+                }
+            }
+            List<String> jobIds = new ArrayList<>(page.size());
+            while (!page.isEmpty()) {
+                jobIds.add(current.ids[page.poll()]);
+            }
+            jobIds = jobIds.reversed();
+            Facets facets =
+                    new Facets(
+                            total,
+                            IntStream.range(0, JOB_TYPES.length)
+                                    .mapToObj(
+                                            i ->
+                                                    new FacetCount(
+                                                            JOB_TYPES[i].name(),
+                                                            JOB_TYPES[i].getLabel(),
+                                                            jobTypeCounts[i],
+                                                            filter.jobTypes()
+                                                                    .contains(JOB_TYPES[i])))
+                                    .toList(),
+                            IntStream.range(0, WORK_MODELS.length)
+                                    .mapToObj(
+                                            i ->
+                                                    new FacetCount(
+                                                            WORK_MODELS[i].name(),
+                                                            WORK_MODELS[i].name(),
+                                                            workModelCounts[i],
+                                                            filter.workModels()
+                                                                    .contains(WORK_MODELS[i])))
+                                    .toList(),
+                            IntStream.range(0, bandCount())
+                                    .mapToObj(
+                                            i ->
+                                                    new FacetCount(
+                                                            String.valueOf(i),
+                                                            salaryBandLabel(i),
+                                                            salaryCounts[i],
+                                                            selectedBands.contains(i)))
+                                    .toList(),
+                            locationFacet(current, locationCounts, locationMask));
+            return new FacetedPage(jobIds, remaining, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns {@code filter} as a GridDB TQL condition on the indexed columns of
+     * {@code JBJobPost}, or {@code null} when the filter is empty. Used while the index is not
+     * loaded.
+     */
+    public String toCondition(JobPostFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (!filter.jobTypes().isEmpty()) {
+            conditions.add(anyOf("jobType", filter.jobTypes().stream().map(Enum::name).toList()));
+        }
+        if (!filter.workModels().isEmpty()) {
+            conditions.add(
+                    anyOf("workModel", filter.workModels().stream().map(Enum::name).toList()));
+        }
+        List<Integer> selectedBands = salaryBands(filter);
+        if (!selectedBands.isEmpty()) {
+            conditions.add(
+                    selectedBands.stream()
+                            .map(this::salaryBandCondition)
+                            .collect(Collectors.joining(" OR ", "(", ")")));
+        }
+        List<String> selectedLocations = locationKeys(filter);
+        if (!selectedLocations.isEmpty()) {
+            conditions.add(anyOf("LOWER(location)", selectedLocations));
+        }
+        return conditions.isEmpty() ? null : String.join(" AND ", conditions);
+    }
+
+    private String anyOf(String column, Collection<String> values) {
+        return values.stream()
+                .map(value -> column + " == '" + value.replace("'", "''") + "'")
+                .collect(Collectors.joining(" OR ", "(", ")"));
+    }
+
+    /** The same bands as {@link #salaryBand}, as a condition on {@code maximumMonthlySalary}. */
+    private String salaryBandCondition(int band) {
+        if (band == bandCount() - 1) {
+            return "maximumMonthlySalary IS NULL";
+        }
+        List<String> bounds = new ArrayList<>(2);
+        if (band > 0) {
+            bounds.add("maximumMonthlySalary >= " + salaryBounds[band - 1]);
+        }
+        if (band < salaryBounds.length) {
+            bounds.add("maximumMonthlySalary < " + salaryBounds[band]);
+        }
+        if (bounds.isEmpty()) {
+            return "maximumMonthlySalary IS NOT NULL";
+        }
+        return "(" + String.join(" AND ", bounds) + ")";
+    }
+
+    /** The selected salary bands that exist, in order; an empty list does not filter by salary. */
+    private List<Integer> salaryBands(JobPostFilter filter) {
+        return filter.salaryBands().stream()
+                .filter(band -> band != null && band >= 0 && band < bandCount())
+                .sorted()
+                .toList();
+    }
+
+    /** The selected locations as {@link #locationKey}s, without blank ones. */
+    private static List<String> locationKeys(JobPostFilter filter) {
+        return filter.locations().stream()
+                .filter(location -> location != null && !location.isBlank())
+                .map(JobPostFacetIndex::locationKey)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * The key locations are compared by, in the index and in TQL alike: trimmed and lower-cased.
+     * TQL has no accent folding, so neither has the index.
+     */
+    private static String locationKey(String location) {
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<FacetCount> locationFacet(
+            Columns current, int[] locationCounts, boolean[] locationMask) {
+        return IntStream.range(0, locationCounts.length)
+                .filter(
+                        code ->
+                                locationCounts[code] > 0
+                                        || (locationMask != null && locationMask[code]))
+                .boxed()
+                .sorted(
+                        Comparator.<Integer>comparingInt(code -> -locationCounts[code])
+                                .thenComparing(current.locationLabels::get))
+                .limit(maxLocations)
+                .map(
+                        code ->
+                                new FacetCount(
+                                        current.locationLabels.get(code),
+                                        current.locationLabels.get(code),
+                                        locationCounts[code],
+                                        locationMask != null && locationMask[code]))
+                .toList();
+    }
+
+    /** The band after the last bound holds job posts without a salary. */
+    private int bandCount() {
+        return salaryBounds.length + 2;
+    }
+
+    private int salaryBand(Double salary) {
+        if (salary == null) {
+            return salaryBounds.length + 1;
+        }
+        int band = 0;
+        while (band < salaryBounds.length && salary >= salaryBounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private String salaryBandLabel(int band) {
+        if (band == salaryBounds.length + 1) {
+            return "Not specified";
+        }
+        if (band == salaryBounds.length) {
+            return band == 0 ? "Specified" : format(salaryBounds[band - 1]) + "+";
+        }
+        if (band == 0) {
+            return "Up to " + format(salaryBounds[0]);
+        }
+        return format(salaryBounds[band - 1]) + " - " + format(salaryBounds[band]);
+    }
+
+    private static String format(double amount) {
+        return String.format("%,.0f", amount);
+    }
+
+    private static boolean matches(boolean[] mask, int value) {
+        return mask == null || (value >= 0 && mask[value]);
+    }
+
+    private static void increment(int[] counts, int value) {
+        if (value >= 0) {
+            counts[value]++;
+        }
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** The columns of one generation of the index. */
+    private final class Columns {
+        private final Map<String, Integer> rowById = new HashMap<>();
+        private final Map<String, Integer> locationCodes = new HashMap<>();
+        private final List<String> locationLabels = new ArrayList<>();
+        private int size;
+        private String[] ids = new String[INITIAL_CAPACITY];
+        private long[] postedAt = new long[INITIAL_CAPACITY];
+        private byte[] jobTypes = new byte[INITIAL_CAPACITY];
+        private byte[] workModels = new byte[INITIAL_CAPACITY];
+        private byte[] salaryBands = new byte[INITIAL_CAPACITY];
+        private int[] locations = new int[INITIAL_CAPACITY];
+
+        private void set(JobPostRecord jobPost) {
+            Integer existing = rowById.get(jobPost.id());
+            int row;
+            if (existing != null) {
+                row = existing;
+            } else {
+                row = size++;
+                ensureCapacity(size);
+                rowById.put(jobPost.id(), row);
+            }
+            ids[row] = jobPost.id();
+            postedAt[row] =
+                    jobPost.datePosted() == null
+                            ? Long.MIN_VALUE
+                            : epochMillis(jobPost.datePosted());
+            jobTypes[row] = (byte) (jobPost.jobType() == null ? -1 : jobPost.jobType().ordinal());
+            workModels[row] =
+                    (byte) (jobPost.workModel() == null ? -1 : jobPost.workModel().ordinal());
+            salaryBands[row] = (byte) salaryBand(jobPost.maximumMonthlySalary());
+            locations[row] = locationCode(jobPost.location());
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, newCapacity);
+            postedAt = Arrays.copyOf(postedAt, newCapacity);
+            jobTypes = Arrays.copyOf(jobTypes, newCapacity);
+            workModels = Arrays.copyOf(workModels, newCapacity);
+            salaryBands = Arrays.copyOf(salaryBands, newCapacity);
+            locations = Arrays.copyOf(locations, newCapacity);
+        }
+
+        private int locationCode(String location) {
+            if (location == null || location.isBlank()) {
+                return -1;
+            }
+            String key = locationKey(location);
+            Integer code = locationCodes.get(key);
+            if (code == null) {
+                code = locationLabels.size();
+                locationCodes.put(key, code);
+                locationLabels.add(location.trim());
+            }
+            return code;
+        }
+    }
+
+    /**
+     * @param value
+     *            the request parameter value that selects this facet value
+     */
+    public record FacetCount(String value, String label, int count, boolean selected) {}
+
+    /**
+     * Facet counts of a filtered listing. {@code total} is the number of job posts that match the
+     * filter.
+     */
+    public record Facets(
+            long total,
+            List<FacetCount> jobTypes,
+            List<FacetCount> workModels,
+            List<FacetCount> salaryBands,
+            List<FacetCount> locations) {}
+
+    /**
+     * @param remaining
+     *            number of matching job posts from the cursor to the end of the listing
+     */
+    public record FacetedPage(List<String> jobIds, long remaining, Facets facets) {}
+}
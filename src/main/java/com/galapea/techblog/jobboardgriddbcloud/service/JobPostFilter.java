@@ -0,0 +1,36 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.Set;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostType;
+import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
+
+/**
+ * Facet filters of the job listing. A job post matches when, for every non-empty set, its value is
+ * one of the selected values. Salary bands are indexes into
+ * {@link JobFacetProperties#getSalaryBands()}, where the index after the last band stands for job
+ * posts without a salary.
+ */
+public record JobPostFilter(
+        Set<JobPostType> jobTypes,
+        Set<WorkModel> workModels,
+        Set<Integer> salaryBands,
+        Set<String> locations) {
+
+    public static final JobPostFilter NONE =
+            new JobPostFilter(Set.of(), Set.of(), Set.of(), Set.of());
+
+    public JobPostFilter {
+        jobTypes = jobTypes == null ? Set.of() : Set.copyOf(jobTypes);
+        workModels = workModels == null ? Set.of() : Set.copyOf(workModels);
+        salaryBands = salaryBands == null ? Set.of() : Set.copyOf(salaryBands);
+        locations = locations == null ? Set.of() : Set.copyOf(locations);
+    }
+
+    public boolean isEmpty() {
+        return jobTypes.isEmpty()
+                && workModels.isEmpty()
+                && salaryBands.isEmpty()
+                && locations.isEmpty();
+    }
+}
@@ -1,6 +1,15 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -12,29 +21,174 @@ import com.github.f4b6a3.tsid.TsidCreator;
 
 @Service
 public class JobPostGridDbService {
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int SKILL_LINK_PAGE_SIZE = 500;
 
     private final JobPostContainer jobPostContainer;
+    private final JobPostSkillContainer jobPostSkillContainer;
+    private final JobPostAggregateContainer jobPostAggregateContainer;
+    private final SkillJobIndex skillJobIndex;
+    private final JobPostTextIndex jobPostTextIndex;
+    private final JobPostIndexer jobPostIndexer;
+    private final JobPostFacetIndex jobPostFacetIndex;
 
-    public JobPostGridDbService(JobPostContainer jobPostContainer) {
+    public JobPostGridDbService(
+            JobPostContainer jobPostContainer,
+            JobPostSkillContainer jobPostSkillContainer,
+            JobPostAggregateContainer jobPostAggregateContainer,
+            SkillJobIndex skillJobIndex,
+            JobPostTextIndex jobPostTextIndex,
+            JobPostIndexer jobPostIndexer,
+            JobPostFacetIndex jobPostFacetIndex) {
         this.jobPostContainer = jobPostContainer;
+        this.jobPostSkillContainer = jobPostSkillContainer;
+        this.jobPostAggregateContainer = jobPostAggregateContainer;
+        this.skillJobIndex = skillJobIndex;
+        this.jobPostTextIndex = jobPostTextIndex;
+        this.jobPostIndexer = jobPostIndexer;
+        this.jobPostFacetIndex = jobPostFacetIndex;
     }
 
     public static String nextId() {
         return TsidCreator.getTsid().format("job_%s");
     }
 
-    public List<JobPostDTO> findAll(String searchSkill) {
+    public List<JobPostDTO> findAll() {
+        return jobPostContainer.getAll().stream()
+                .map(jobPost -> mapToDTO(jobPost, new JobPostDTO()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the newest job posts that require all ({@code matchAll}) or any of the named skills.
+     * The matching ids come from the {@link SkillJobIndex}; only the matched job posts are read
+     * from GridDB. While the index is not loaded, each skill is searched with SQL instead.
+     */
+    public List<JobPostDTO> searchBySkills(final List<String> skillNames, final boolean matchAll) {
         final List<JobPostRecord> jobPosts;
-        if (searchSkill != null && !searchSkill.isBlank()) {
-            jobPosts = jobPostContainer.searchBySkill(searchSkill);
+        if (skillNames.isEmpty()) {
+            jobPosts = List.of();
+        } else if (skillJobIndex.isReady()) {
+            jobPosts =
+                    jobPostContainer.getByIds(
+                            skillJobIndex.search(skillNames, matchAll, MAX_SEARCH_RESULTS));
         } else {
-            jobPosts = jobPostContainer.getAll();
+            jobPosts = searchBySkillsWithSql(skillNames, matchAll);
         }
         return jobPosts.stream()
                 .map(jobPost -> mapToDTO(jobPost, new JobPostDTO()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Whether {@link #searchText} can answer queries. Text search has no GridDB fallback, as
+     * matching terms there would scan every job post.
+     */
+    public boolean isTextSearchReady() {
+        return jobPostTextIndex.isReady();
+    }
+
+    /**
+     * Returns the job posts that best match the free-text {@code query}, best match first. When
+     * {@code skillNames} is not empty, only job posts with all ({@code matchAll}) or any of those
+     * skills are returned. The query is answered by the {@link JobPostTextIndex}; GridDB is only
+     * asked for the matched job posts. Returns nothing while the index is not loaded, see
+     * {@link #isTextSearchReady()}.
+     */
+    public List<JobPostDTO> searchText(
+            final String query, final List<String> skillNames, final boolean matchAll) {
+        List<String> rankedIds = jobPostTextIndex.search(query, Integer.MAX_VALUE);
+        if (!skillNames.isEmpty()) {
+            Set<String> withSkills =
+                    skillJobIndex.isReady()
+                            ? new HashSet<>(
+                                    skillJobIndex.search(skillNames, matchAll, Integer.MAX_VALUE))
+                            : searchBySkillsWithSql(skillNames, matchAll).stream()
+                                    .map(JobPostRecord::id)
+                                    .collect(Collectors.toSet());
+            rankedIds = rankedIds.stream().filter(withSkills::contains).toList();
+        }
+        rankedIds = rankedIds.subList(0, Math.min(rankedIds.size(), MAX_SEARCH_RESULTS));
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        return jobPostContainer.getByIds(rankedIds).stream()
+                .sorted(Comparator.comparing(jobPost -> rank.get(jobPost.id())))
+                .map(jobPost -> mapToDTO(jobPost, new JobPostDTO()))
+                .collect(Collectors.toList());
+    }
+
+    private List<JobPostRecord> searchBySkillsWithSql(
+            final List<String> skillNames, final boolean matchAll) {
+        Map<String, JobPostRecord> jobPosts = null;
+        for (String skillName : skillNames) {
+            Map<String, JobPostRecord> matches = new LinkedHashMap<>();
+            jobPostContainer.searchBySkill(skillName).forEach(jp -> matches.put(jp.id(), jp));
+            if (jobPosts == null) {
+                jobPosts = matches;
+            } else if (matchAll) {
+                jobPosts.keySet().retainAll(matches.keySet());
+            } else {
+                matches.forEach(jobPosts::putIfAbsent);
+            }
+        }
+        return jobPosts.values().stream()
+                .sorted(
+                        Comparator.comparing(
+                                        JobPostRecord::datePosted,
+                                        Comparator.nullsFirst(
+                                                Comparator.<LocalDateTime>naturalOrder()))
+                                .reversed())
+                .limit(MAX_SEARCH_RESULTS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the page of job posts after {@code cursor}, newest first. {@code nextCursor} is
+     * {@code null} on the last page.
+     */
+    public JobPostPage findPage(final String cursor, final int pageSize) {
+        return findPage(cursor, pageSize, JobPostFilter.NONE);
+    }
+
+    /**
+     * Like {@link #findPage(String, int)}, but only lists job posts that match {@code filter}. The
+     * page comes with the facet counts of the filtered listing, computed by the
+     * {@link JobPostFacetIndex}. While that index is not loaded, the filter is sent to GridDB as a
+     * TQL condition and {@code facets} is {@code null}.
+     */
+    public JobPostPage findPage(
+            final String cursor, final int pageSize, final JobPostFilter filter) {
+        JobPostCursor after =
+                (cursor == null || cursor.isBlank()) ? null : JobPostCursor.decode(cursor);
+        List<JobPostRecord> rows;
+        long remaining;
+        JobPostFacetIndex.Facets facets;
+        if (jobPostFacetIndex.isReady()) {
+            JobPostFacetIndex.FacetedPage page = jobPostFacetIndex.query(filter, after, pageSize);
+            rows = jobPostContainer.getByIds(page.jobIds());
+            remaining = page.remaining();
+            facets = page.facets();
+        } else {
+            JobPostContainer.PageRows page =
+                    jobPostContainer.getPage(
+                            after, pageSize, jobPostFacetIndex.toCondition(filter));
+            rows = page.rows();
+            remaining = page.total();
+            facets = null;
+        }
+        List<JobPostDTO> jobPosts =
+                rows.stream()
+                        .map(jobPost -> mapToDTO(jobPost, new JobPostDTO()))
+                        .collect(Collectors.toList());
+        String nextCursor =
+                !rows.isEmpty() && remaining > rows.size()
+                        ? JobPostCursor.after(rows.get(rows.size() - 1)).encode()
+                        : null;
+        return new JobPostPage(jobPosts, remaining, nextCursor, facets);
+    }
+
     public JobPostDTO get(final String id) {
         return jobPostContainer
                 .getOne(id)
@@ -64,6 +218,7 @@ public class JobPostGridDbService {
                         jobPostDTO.getLocation(),
                         jobPostDTO.getApplyUrl());
         jobPostContainer.saveRecords(List.of(newJobPost));
+        jobPostIndexer.put(newJobPost);
         return id;
     }
 
@@ -88,6 +243,7 @@ public class JobPostGridDbService {
                         .collect(Collectors.toList());
         if (!jobPostRecords.isEmpty()) {
             jobPostContainer.saveRecords(jobPostRecords);
+            jobPostRecords.forEach(jobPostIndexer::put);
         }
     }
 
@@ -105,6 +261,59 @@ public class JobPostGridDbService {
                         jobPostDTO.getLocation(),
                         jobPostDTO.getApplyUrl());
         jobPostContainer.saveRecords(List.of(updatedJobPost));
+        jobPostIndexer.put(updatedJobPost);
+    }
+
+    /**
+     * Saves the job post and sets its skills to {@code skillTagIds}. The job row and the links of
+     * newly added skills are written in one request, and only the links of removed skills are
+     * deleted afterwards, so readers never see the job without its remaining skills.
+     */
+    public void updateWithSkills(final String id, final JobPostDTO jobPostDTO) {
+        JobPostRecord updatedJobPost =
+                new JobPostRecord(
+                        id,
+                        jobPostDTO.getTitle(),
+                        jobPostDTO.getDescription(),
+                        jobPostDTO.getJobType(),
+                        jobPostDTO.getMaximumMonthlySalary(),
+                        jobPostDTO.getDatePosted(),
+                        jobPostDTO.getCompanyId(),
+                        jobPostDTO.getWorkModel(),
+                        jobPostDTO.getLocation(),
+                        jobPostDTO.getApplyUrl());
+        Set<String> wantedSkillTagIds =
+                jobPostDTO.getSkillsIds() == null
+                        ? Set.of()
+                        : new LinkedHashSet<>(jobPostDTO.getSkillsIds());
+        Set<String> keptSkillTagIds = new HashSet<>();
+        List<String> removedLinkIds = new ArrayList<>();
+        // every link, not only the first page, so that none is left stale or duplicated
+        jobPostSkillContainer.forEachByJobPostId(
+                id,
+                SKILL_LINK_PAGE_SIZE,
+                link -> {
+                    // a skill linked twice keeps only its first link
+                    if (!wantedSkillTagIds.contains(link.skillTagId())
+                            || !keptSkillTagIds.add(link.skillTagId())) {
+                        removedLinkIds.add(link.id());
+                    }
+                });
+        List<JobPostSkillRecord> addedLinks =
+                wantedSkillTagIds.stream()
+                        .filter(skillTagId -> !keptSkillTagIds.contains(skillTagId))
+                        .map(
+                                skillTagId ->
+                                        new JobPostSkillRecord(
+                                                JobPostSkillGridDbService.nextId(),
+                                                id,
+                                                skillTagId,
+                                                ""))
+                        .collect(Collectors.toList());
+        jobPostAggregateContainer.save(updatedJobPost, addedLinks);
+        jobPostSkillContainer.deleteByIds(removedLinkIds);
+        skillJobIndex.replaceSkills(id, wantedSkillTagIds);
+        jobPostIndexer.put(updatedJobPost);
     }
 
     public void delete(final String id) {
@@ -132,4 +341,16 @@ public class JobPostGridDbService {
     public void createTable() {
         jobPostContainer.createTable();
     }
+
+    /**
+     * @param remaining
+     *            number of job posts from the start of this page to the end of the listing
+     * @param facets
+     *            facet counts of the listing, or {@code null} if they are not available
+     */
+    public record JobPostPage(
+            List<JobPostDTO> jobPosts,
+            long remaining,
+            String nextCursor,
+            JobPostFacetIndex.Facets facets) {}
 }
@@ -0,0 +1,34 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+/**
+ * An in-memory index over job posts, loaded by the {@link JobPostIndexer} and kept current by
+ * {@link JobPostGridDbService}.
+ */
+interface JobPostIndex {
+
+    /**
+     * Starts replacing the content of the index. The job posts of the scan are passed to the
+     * returned {@link Loader} as they arrive; the index keeps serving its current content until
+     * {@link Loader#finish()}.
+     */
+    Loader startLoad();
+
+    /** Adds a job post to the index, or re-indexes it if it is already there. */
+    void put(JobPostRecord jobPost);
+
+    /** One load of a {@link JobPostIndex}, used by a single thread. */
+    interface Loader {
+
+        void add(JobPostRecord jobPost);
+
+        /**
+         * Replaces the content of the index with the added job posts, then applies again the job
+         * posts {@linkplain JobPostIndex#put put} since the load started, which the scan may have
+         * missed or read in an older version.
+         */
+        void finish();
+
+        /** Drops the added job posts; the index keeps its current content. */
+        void abort();
+    }
+}
@@ -0,0 +1,110 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Loads every {@link JobPostIndex} from a single scan of {@code JBJobPost} once the schema is
+ * ready, and passes saved job posts on to all of them. Job posts are handed to the indexes page by
+ * page as the scan goes, and loads run one at a time. A failed load is retried every
+ * {@value #RETRY_DELAY_SECONDS} seconds until one succeeds, so a GridDB outage at startup does not
+ * leave searches without their indexes until the next restart.
+ */
+@Component
+public class JobPostIndexer {
+    private static final Logger log = LoggerFactory.getLogger(JobPostIndexer.class);
+    private static final int SCAN_PAGE_SIZE = 500;
+    private static final long RETRY_DELAY_SECONDS = 30;
+
+    private final JobPostContainer jobPostContainer;
+    private final List<JobPostIndex> indexes;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("job-post-indexer-", 0).factory());
+    // not a monitor, so a load on a virtual thread does not pin its carrier while it scans
+    private final Lock loadLock = new ReentrantLock();
+
+    public JobPostIndexer(JobPostContainer jobPostContainer, List<JobPostIndex> indexes) {
+        this.jobPostContainer = jobPostContainer;
+        this.indexes = indexes;
+    }
+
+    @EventListener(SchemaReadyEvent.class)
+    public void start() {
+        if (!load()) {
+            executor.execute(this::retryUntilLoaded);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Replaces the content of every index with the job posts in GridDB.
+     *
+     * @return whether the indexes were loaded; on failure they keep their previous content
+     */
+    public boolean load() {
+        loadLock.lock();
+        try {
+            long begin = System.nanoTime();
+            List<JobPostIndex.Loader> loaders =
+                    indexes.stream().map(JobPostIndex::startLoad).toList();
+            AtomicLong jobPosts = new AtomicLong();
+            try {
+                // each page goes to the indexes as it arrives, the scan is never collected
+                jobPostContainer.forEach(
+                        SCAN_PAGE_SIZE,
+                        jobPost -> {
+                            jobPosts.incrementAndGet();
+                            loaders.forEach(loader -> loader.add(jobPost));
+                        });
+            } catch (RuntimeException e) {
+                loaders.forEach(JobPostIndex.Loader::abort);
+                log.error("Failed to load the job post indexes", e);
+                return false;
+            }
+            loaders.forEach(JobPostIndex.Loader::finish);
+            log.info(
+                    "Loaded {} job post indexes with {} job posts in {} ms",
+                    indexes.size(),
+                    jobPosts.get(),
+                    (System.nanoTime() - begin) / 1_000_000);
+            return true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void put(JobPostRecord jobPost) {
+        for (JobPostIndex index : indexes) {
+            index.put(jobPost);
+        }
+    }
+
+    private void retryUntilLoaded() {
+        do {
+            log.info("Retrying to load the job post indexes in {} s", RETRY_DELAY_SECONDS);
+            try {
+                TimeUnit.SECONDS.sleep(RETRY_DELAY_SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (!load());
+    }
+}
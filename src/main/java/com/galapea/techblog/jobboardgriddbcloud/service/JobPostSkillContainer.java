@@ -1,8 +1,11 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -15,32 +18,58 @@ import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbContainerDefinition;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectResponse;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowDecoder;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowWriteBuffer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.SQLSelectHandler;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsResponse;
 
 @Component
+@MeteredContainer("JBJobPostSkill")
 public class JobPostSkillContainer {
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final GridDbCloudClient gridDbCloudClient;
-    private static final String TBL_NAME = "JBJobPostSkill";
+    private final RowWriteBuffer rowWriteBuffer;
+    static final String TBL_NAME = "JBJobPostSkill";
+    private static final List<GridDbColumn> COLUMNS =
+            List.of(
+                    new GridDbColumn("id", "STRING", Set.of("TREE")),
+                    new GridDbColumn("jobPostId", "STRING", Set.of("TREE")),
+                    new GridDbColumn("skillTagId", "STRING", Set.of("TREE")));
+    static final RowCodec<JobPostSkillRecord> CODEC =
+            RowCodec.builder(COLUMNS)
+                    .build(
+                            cells ->
+                                    new JobPostSkillRecord(
+                                            cells.get(0), cells.get(1), cells.get(2), "-"),
+                            record ->
+                                    new Object[] {
+                                        record.id(), record.jobPostId(), record.skillTagId()
+                                    });
 
-    public JobPostSkillContainer(GridDbCloudClient gridDbCloudClient) {
+    // a shared decoder lets concurrent lookups of the same job be coalesced by the client
+    private static final RowDecoder<JobPostSkillRecord> SKILL_WITH_NAME_DECODER =
+            row -> {
+                String id = row.nextString();
+                String jobPostId = row.nextString();
+                String skillName = row.nextString();
+                String skillTagId = row.nextString();
+                return new JobPostSkillRecord(id, jobPostId, skillTagId, skillName);
+            };
+
+    public JobPostSkillContainer(
+            GridDbCloudClient gridDbCloudClient, RowWriteBuffer rowWriteBuffer) {
         this.gridDbCloudClient = gridDbCloudClient;
+        this.rowWriteBuffer = rowWriteBuffer;
     }
 
     public void createTable() {
         log.info("Creating table " + TBL_NAME + " in GridDB...");
-        List<GridDbColumn> columns =
-                List.of(
-                        new GridDbColumn("id", "STRING", Set.of("TREE")),
-                        new GridDbColumn("jobPostId", "STRING", Set.of("TREE")),
-                        new GridDbColumn("skillTagId", "STRING", Set.of("TREE")));
-
         GridDbContainerDefinition containerDefinition =
-                GridDbContainerDefinition.build(TBL_NAME, columns);
+                GridDbContainerDefinition.build(TBL_NAME, COLUMNS);
         this.gridDbCloudClient.createContainer(containerDefinition);
-        log.info("Created table " + TBL_NAME + " with columns: {}", columns);
+        log.info("Created table " + TBL_NAME + " with columns: {}", COLUMNS);
     }
 
     private void post(String uri, Object body) {
@@ -85,52 +114,33 @@ public class JobPostSkillContainer {
     }
 
     public void saveRecords(List<JobPostSkillRecord> jobPostSkillRecords) {
-        // Initialize a StringBuilder to create the JSON-like array representation
-        StringBuilder sb = new StringBuilder();
-        sb.append("["); // Start the outer array
-        for (int i = 0; i < jobPostSkillRecords.size(); i++) {
-            JobPostSkillRecord record = jobPostSkillRecords.get(i);
-            sb.append("["); // Start the inner array (each record)
-            // Append each record field in order
-            sb.append("\"").append(record.id()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.jobPostId()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.skillTagId()).append("\"");
-            sb.append("]"); // End the inner array
-            // Add a comma between record, except for the last one
-            if (i < jobPostSkillRecords.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]"); // End the outer array
-        String result = sb.toString();
-        log.info("JobPostSkills array: {}", result);
-        this.gridDbCloudClient.registerRows(TBL_NAME, result);
+        log.info("Registering {} job post skills in GridDB", jobPostSkillRecords.size());
+        this.rowWriteBuffer.write(
+                TBL_NAME, jobPostSkillRecords.size(), CODEC.rowsOf(jobPostSkillRecords));
     }
 
     public List<JobPostSkillRecord> getAll() {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(50L).sort("id ASC").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<JobPostSkillRecord> jobPostSkills = convertResponseToRecord(response);
+        List<JobPostSkillRecord> jobPostSkills = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPostSkills::add);
         log.info("Fetched {} job post skills from GridDB", jobPostSkills.size());
         return jobPostSkills;
     }
 
+    /** Passes every job post skill to {@code consumer}, reading {@code pageSize} rows at a time. */
+    public void forEach(int pageSize, Consumer<JobPostSkillRecord> consumer) {
+        long count =
+                this.gridDbCloudClient.scanRows(
+                        TBL_NAME, pageSize, CODEC, JobPostSkillRecord::id, consumer);
+        log.info("Scanned {} job post skills from GridDB", count);
+    }
+
     public Optional<JobPostSkillRecord> getOne(String id) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(1L).condition("id == \'" + id + "\'").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<JobPostSkillRecord> jobPostSkills = convertResponseToRecord(response);
+        List<JobPostSkillRecord> jobPostSkills = new ArrayList<>(1);
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPostSkills::add);
         log.info("Fetched {} job post skills from GridDB", jobPostSkills.size());
         return jobPostSkills.isEmpty() ? Optional.empty() : Optional.of(jobPostSkills.get(0));
     }
@@ -142,12 +152,8 @@ public class JobPostSkillContainer {
                         .condition("jobPostId == \'" + jobPostId + "\'")
                         .sort("id ASC")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<JobPostSkillRecord> jobPostSkills = convertResponseToRecord(response);
+        List<JobPostSkillRecord> jobPostSkills = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPostSkills::add);
         log.info(
                 "Fetched {} job post skills for job post {} from GridDB",
                 jobPostSkills.size(),
@@ -155,6 +161,23 @@ public class JobPostSkillContainer {
         return jobPostSkills;
     }
 
+    /**
+     * Passes every skill link of the job post to {@code consumer}, reading {@code pageSize} rows at
+     * a time, however many links it has.
+     */
+    public void forEachByJobPostId(
+            String jobPostId, int pageSize, Consumer<JobPostSkillRecord> consumer) {
+        long count =
+                this.gridDbCloudClient.scanRows(
+                        TBL_NAME,
+                        "jobPostId == '" + jobPostId.replace("'", "''") + "'",
+                        pageSize,
+                        CODEC,
+                        JobPostSkillRecord::id,
+                        consumer);
+        log.info("Scanned {} job post skills for job post {} from GridDB", count, jobPostId);
+    }
+
     public List<JobPostSkillRecord> getBySkillTagId(String skillTagId) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder()
@@ -162,12 +185,8 @@ public class JobPostSkillContainer {
                         .condition("skillTagId == \'" + skillTagId + "\'")
                         .sort("id ASC")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<JobPostSkillRecord> jobPostSkills = convertResponseToRecord(response);
+        List<JobPostSkillRecord> jobPostSkills = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, jobPostSkills::add);
         log.info(
                 "Fetched {} job post skills for skill tag {} from GridDB",
                 jobPostSkills.size(),
@@ -183,6 +202,23 @@ public class JobPostSkillContainer {
         log.info("Deleted job post skills for job post: {}", jobPostId);
     }
 
+    public void deleteByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String stmt =
+                "DELETE FROM "
+                        + TBL_NAME
+                        + " WHERE id IN ("
+                        + ids.stream()
+                                .map(id -> "'" + escapeString(id) + "'")
+                                .collect(Collectors.joining(", "))
+                        + ")";
+        GridDbCloudSQLStmt delete = new GridDbCloudSQLStmt(stmt);
+        post("/sql/update", List.of(delete));
+        log.info("Deleted {} job post skills: {}", ids.size(), ids);
+    }
+
     public void deleteBySkillTagId(String skillTagId) {
         String stmt =
                 "DELETE FROM "
@@ -195,36 +231,11 @@ public class JobPostSkillContainer {
         log.info("Deleted job post skills for skill tag: {}", skillTagId);
     }
 
-    private List<JobPostSkillRecord> convertResponseToRecord(AcquireRowsResponse response) {
-        List<JobPostSkillRecord> results =
-                response.getRows().stream()
-                        .map(
-                                row -> {
-                                    try {
-                                        String id = row.get(0).toString();
-                                        String jobPostId = row.get(1).toString();
-                                        String skillTagId = row.get(2).toString();
-
-                                        return new JobPostSkillRecord(
-                                                id, jobPostId, skillTagId, "-");
-                                    } catch (Exception e) {
-                                        log.error(
-                                                "Error parsing job post skill row: {}. Error: {}",
-                                                row.toString(),
-                                                e.getMessage());
-                                        return null;
-                                    }
-                                })
-                        .filter(r -> r != null)
-                        .collect(Collectors.toList());
-        return results;
-    }
-
     public List<JobPostSkillRecord> getSkillsByJobId(String jobId) {
         String stmt2 =
                 """
             SELECT \
-                jps.id AS id, st.name AS name, st.id AS skillTagId \
+                jps.id AS id, jps.jobPostId AS jobPostId, st.name AS name, st.id AS skillTagId \
             FROM \
                 JBSkillTag st \
             JOIN \
@@ -233,41 +244,14 @@ public class JobPostSkillContainer {
                 jps.jobPostId = '%s'"""
                         .formatted(jobId);
 
-        List<GridDbCloudSQLStmt> statementList = List.of(new GridDbCloudSQLStmt(stmt2));
-        SQLSelectResponse[] response = this.gridDbCloudClient.select(statementList);
-        if (response == null || response.length != statementList.size()) {
-            log.error(
-                    "Failed to fetch job skill. Response is null or size mismatch. Expected: {}, Actual: {}",
-                    statementList.size(),
-                    response != null ? response.length : 0);
-            return List.of();
-        }
-
-        List<List<Object>> results = response[0].getResults();
-        if (results.isEmpty()) {
+        List<JobPostSkillRecord> records = new ArrayList<>();
+        this.gridDbCloudClient.select(
+                new SQLSelectHandler<>(
+                        new GridDbCloudSQLStmt(stmt2), SKILL_WITH_NAME_DECODER, records::add));
+        if (records.isEmpty()) {
             log.info("No result for {}", jobId);
             return List.of();
         }
-        List<JobPostSkillRecord> records =
-                results.stream()
-                        .map(
-                                row -> {
-                                    try {
-                                        String id = row.get(0).toString();
-                                        String skillName = row.get(1).toString();
-                                        String skillTagId = row.get(2).toString();
-                                        return new JobPostSkillRecord(
-                                                id, jobId, skillTagId, skillName);
-                                    } catch (Exception e) {
-                                        log.error(
-                                                "Error parsing transaction summary row: {}. Error: {}",
-                                                row.toString(),
-                                                e.getMessage());
-                                        return null;
-                                    }
-                                })
-                        .filter(s -> s != null)
-                        .collect(Collectors.toList());
         log.info("Fetched {} records job: {}", records.size(), jobId);
         return records;
     }
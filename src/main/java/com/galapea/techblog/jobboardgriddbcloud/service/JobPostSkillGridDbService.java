@@ -1,6 +1,9 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -14,9 +17,12 @@ import com.github.f4b6a3.tsid.TsidCreator;
 public class JobPostSkillGridDbService {
 
     private final JobPostSkillContainer jobPostSkillContainer;
+    private final SkillJobIndex skillJobIndex;
 
-    public JobPostSkillGridDbService(JobPostSkillContainer jobPostSkillContainer) {
+    public JobPostSkillGridDbService(
+            JobPostSkillContainer jobPostSkillContainer, SkillJobIndex skillJobIndex) {
         this.jobPostSkillContainer = jobPostSkillContainer;
+        this.skillJobIndex = skillJobIndex;
     }
 
     public static String nextId() {
@@ -59,6 +65,7 @@ public class JobPostSkillGridDbService {
                 new JobPostSkillRecord(
                         id, jobPostSkillDTO.getJobPostId(), jobPostSkillDTO.getSkillTagId(), "");
         jobPostSkillContainer.saveRecords(List.of(newJobPostSkill));
+        skillJobIndex.addSkills(newJobPostSkill.jobPostId(), List.of(newJobPostSkill.skillTagId()));
         return id;
     }
 
@@ -77,20 +84,32 @@ public class JobPostSkillGridDbService {
                         .collect(Collectors.toList());
         if (!jobPostSkillRecords.isEmpty()) {
             jobPostSkillContainer.saveRecords(jobPostSkillRecords);
+            jobPostSkillRecords.stream()
+                    .collect(
+                            Collectors.groupingBy(
+                                    JobPostSkillRecord::jobPostId,
+                                    Collectors.mapping(
+                                            JobPostSkillRecord::skillTagId, Collectors.toList())))
+                    .forEach(skillJobIndex::addSkills);
         }
     }
 
     public void createSkillsForJobPost(String jobPostId, List<String> skillTagIds) {
-        List<JobPostSkillDTO> jobPostSkills =
-                skillTagIds.stream()
-                        .map(
-                                skillTagId -> {
-                                    JobPostSkillDTO dto = new JobPostSkillDTO();
-                                    dto.setJobPostId(jobPostId);
-                                    dto.setSkillTagId(skillTagId);
-                                    return dto;
-                                })
-                        .collect(Collectors.toList());
+        createSkillsForJobPosts(Map.of(jobPostId, skillTagIds));
+    }
+
+    /** Links several job posts to their skill tags, in one write. */
+    public void createSkillsForJobPosts(Map<String, List<String>> skillTagIdsByJobPostId) {
+        List<JobPostSkillDTO> jobPostSkills = new ArrayList<>();
+        skillTagIdsByJobPostId.forEach(
+                (jobPostId, skillTagIds) -> {
+                    for (String skillTagId : skillTagIds) {
+                        JobPostSkillDTO dto = new JobPostSkillDTO();
+                        dto.setJobPostId(jobPostId);
+                        dto.setSkillTagId(skillTagId);
+                        jobPostSkills.add(dto);
+                    }
+                });
         createAll(jobPostSkills);
     }
 
@@ -98,7 +117,13 @@ public class JobPostSkillGridDbService {
         JobPostSkillRecord updatedJobPostSkill =
                 new JobPostSkillRecord(
                         id, jobPostSkillDTO.getJobPostId(), jobPostSkillDTO.getSkillTagId(), "");
+        Optional<JobPostSkillRecord> previous = jobPostSkillContainer.getOne(id);
         jobPostSkillContainer.saveRecords(List.of(updatedJobPostSkill));
+        // the link no longer points to its previous skill, or job post
+        previous.ifPresent(
+                link -> skillJobIndex.removeSkills(link.jobPostId(), List.of(link.skillTagId())));
+        skillJobIndex.addSkills(
+                updatedJobPostSkill.jobPostId(), List.of(updatedJobPostSkill.skillTagId()));
     }
 
     public void delete(final String id) {
@@ -107,10 +132,12 @@ public class JobPostSkillGridDbService {
 
     public void deleteByJobPostId(final String jobPostId) {
         jobPostSkillContainer.deleteByJobPostId(jobPostId);
+        skillJobIndex.replaceSkills(jobPostId, List.of());
     }
 
     public void deleteBySkillTagId(final String skillTagId) {
         jobPostSkillContainer.deleteBySkillTagId(skillTagId);
+        skillJobIndex.removeSkillTag(skillTagId);
     }
 
     public void replaceSkillsForJobPost(String jobPostId, List<String> skillTagIds) {
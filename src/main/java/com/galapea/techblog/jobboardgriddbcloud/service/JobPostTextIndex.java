@@ -0,0 +1,233 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.util.TextTokenizer;
+
+/**
+ * In-memory full-text index over the title, description and location of job posts, ranked with
+ * BM25.
+ * <p>
+ * A term found in the title counts {@value #TITLE_WEIGHT} times and one found in the location
+ * {@value #LOCATION_WEIGHT} times, so a query that names a job title or a city ranks those job
+ * posts above ones that only mention it in passing. Queries match any of their terms and never
+ * reach GridDB; the index is loaded and kept current through {@link JobPostIndexer}.
+ * </p>
+ * <p>
+ * A load builds new postings from the scan while the current ones keep answering queries, then
+ * swaps them in. Job posts put meanwhile are applied to both, so none is lost by the swap.
+ * </p>
+ */
+@Component
+public class JobPostTextIndex implements JobPostIndex {
+    private static final Logger log = LoggerFactory.getLogger(JobPostTextIndex.class);
+    private static final int TITLE_WEIGHT = 3;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all fields below are guarded by lock
+    private Terms terms = new Terms();
+    private boolean ready;
+    // job posts put while a load scans, or null when no load is running
+    private List<IndexedJobPost> putsDuringLoad;
+
+    @Override
+    public Loader startLoad() {
+        lock.writeLock().lock();
+        try {
+            putsDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Terms loaded = new Terms();
+        return new Loader() {
+            @Override
+            public void add(JobPostRecord jobPost) {
+                loaded.put(analyze(jobPost));
+            }
+
+            @Override
+            public void finish() {
+                int replayed;
+                lock.writeLock().lock();
+                try {
+                    // the scan may have read them before they were put, applying them again is
+                    // harmless
+                    putsDuringLoad.forEach(loaded::put);
+                    replayed = putsDuringLoad.size();
+                    putsDuringLoad = null;
+                    terms = loaded;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.info(
+                        "Loaded job post text index: {} terms, {} changes replayed",
+                        loaded.postings.size(),
+                        replayed);
+            }
+
+            @Override
+            public void abort() {
+                lock.writeLock().lock();
+                try {
+                    putsDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(JobPostRecord jobPost) {
+        IndexedJobPost indexed = analyze(jobPost);
+        lock.writeLock().lock();
+        try {
+            terms.put(indexed);
+            if (putsDuringLoad != null) {
+                putsDuringLoad.add(indexed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of up to {@code limit} job posts that contain any term of {@code query},
+     * best match first. Returns an empty list while the index is not loaded.
+     */
+    public List<String> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Terms current = terms;
+            int documents = current.lengthByJobId.size();
+            if (!ready || documents == 0) {
+                return List.of();
+            }
+            double averageLength = (double) current.totalLength / documents;
+            for (String term : queryTerms) {
+                Map<String, Integer> posting = current.postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf =
+                        Math.log(1 + (documents - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach(
+                        (jobId, frequency) -> {
+                            int length = current.lengthByJobId.get(jobId);
+                            double norm = K1 * (1 - B + B * length / averageLength);
+                            double score = idf * frequency * (K1 + 1) / (frequency + norm);
+                            scores.merge(jobId, score, Double::sum);
+                        });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topScores(scores, limit);
+    }
+
+    private static List<String> topScores(Map<String, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<String, Double>> top =
+                new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<String> jobIds = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            jobIds.add(top.poll().getKey());
+        }
+        Collections.reverse(jobIds);
+        return jobIds;
+    }
+
+    private static IndexedJobPost analyze(JobPostRecord jobPost) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        count(frequencies, jobPost.title(), TITLE_WEIGHT);
+        count(frequencies, jobPost.location(), LOCATION_WEIGHT);
+        count(frequencies, jobPost.description(), 1);
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        return new IndexedJobPost(jobPost.id(), frequencies, length);
+    }
+
+    private static void count(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : TextTokenizer.tokenize(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    /** The postings of one generation of the index. */
+    private static final class Terms {
+        private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+        private final Map<String, Set<String>> termsByJobId = new HashMap<>();
+        private final Map<String, Integer> lengthByJobId = new HashMap<>();
+        private long totalLength;
+
+        private void put(IndexedJobPost jobPost) {
+            remove(jobPost.id());
+            add(jobPost);
+        }
+
+        private void add(IndexedJobPost jobPost) {
+            jobPost.frequencies()
+                    .forEach(
+                            (term, frequency) ->
+                                    postings.computeIfAbsent(term, k -> new HashMap<>())
+                                            .put(jobPost.id(), frequency));
+            termsByJobId.put(jobPost.id(), jobPost.frequencies().keySet());
+            lengthByJobId.put(jobPost.id(), jobPost.length());
+            totalLength += jobPost.length();
+        }
+
+        private void remove(String jobId) {
+            Set<String> terms = termsByJobId.remove(jobId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<String, Integer> posting = postings.get(term);
+                posting.remove(jobId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= lengthByJobId.remove(jobId);
+        }
+    }
+
+    /** Weighted term frequencies of one job post, computed outside the lock. */
+    private record IndexedJobPost(String id, Map<String, Integer> frequencies, int length) {}
+}
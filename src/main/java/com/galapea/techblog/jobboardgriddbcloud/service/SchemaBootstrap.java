@@ -0,0 +1,185 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Creates the GridDB containers and writes the {@link TableSeeder} seed data in the background
+ * once the application is ready, then publishes a {@link SchemaReadyEvent} for the components that
+ * load data from GridDB.
+ * <p>
+ * The version applied last is kept in {@code JBSchemaVersion}. When it is already
+ * {@link #SCHEMA_VERSION}, a startup costs that one read; otherwise every container is created
+ * and seeded at once, each container followed by its own seed, and the version is written after
+ * all of them have succeeded. Every step is idempotent, so a bootstrap interrupted halfway, or run
+ * by several instances at the same time, is simply repeated. A failed bootstrap is retried every
+ * {@value #RETRY_DELAY_SECONDS} seconds.
+ * </p>
+ * <p>
+ * The web server accepts requests meanwhile; {@link SchemaHealthIndicator} reports the bootstrap
+ * state in the {@code readiness} health group so that no traffic is routed here before the
+ * schema is ready.
+ * </p>
+ */
+@Component
+public class SchemaBootstrap {
+    private static final Logger log = LoggerFactory.getLogger(SchemaBootstrap.class);
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final String MARKER_ID = "schema";
+
+    /** Bump when a container definition or the seed data changes, to apply it on next start. */
+    static final int SCHEMA_VERSION = 1;
+
+    private final SchemaVersionContainer schemaVersionContainer;
+    private final CompanyGridDbService companyService;
+    private final UserGridDbService userService;
+    private final SkillTagGridDbService skillTagService;
+    private final JobPostGridDbService jobPostService;
+    private final JobPostSkillGridDbService jobPostSkillService;
+    private final TableSeeder tableSeeder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("schema-", 0).factory());
+    private volatile State state = State.STARTING;
+    private volatile RuntimeException lastFailure;
+
+    public SchemaBootstrap(
+            SchemaVersionContainer schemaVersionContainer,
+            CompanyGridDbService companyService,
+            UserGridDbService userService,
+            SkillTagGridDbService skillTagService,
+            JobPostGridDbService jobPostService,
+            JobPostSkillGridDbService jobPostSkillService,
+            TableSeeder tableSeeder,
+            ApplicationEventPublisher eventPublisher) {
+        this.schemaVersionContainer = schemaVersionContainer;
+        this.companyService = companyService;
+        this.userService = userService;
+        this.skillTagService = skillTagService;
+        this.jobPostService = jobPostService;
+        this.jobPostSkillService = jobPostSkillService;
+        this.tableSeeder = tableSeeder;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public enum State {
+        /** Waiting for the application to be ready. */
+        STARTING,
+        /** Creating containers and seeding, or loading data after the schema is ready. */
+        BOOTSTRAPPING,
+        /** The last attempt failed; another one follows. */
+        FAILED,
+        READY
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** The failure of the last attempt while {@link State#FAILED}. */
+    public Optional<RuntimeException> getLastFailure() {
+        return Optional.ofNullable(state == State.FAILED ? lastFailure : null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::runUntilReady);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runUntilReady() {
+        while (true) {
+            state = State.BOOTSTRAPPING;
+            try {
+                bootstrap();
+                break;
+            } catch (RuntimeException e) {
+                lastFailure = e;
+                state = State.FAILED;
+                log.error("Schema bootstrap failed, retrying in {} s", RETRY_DELAY_SECONDS, e);
+            }
+            try {
+                TimeUnit.SECONDS.sleep(RETRY_DELAY_SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // published once; listeners that fail to load fall back to querying GridDB
+        try {
+            eventPublisher.publishEvent(new SchemaReadyEvent(SCHEMA_VERSION));
+        } catch (RuntimeException e) {
+            log.error("Failed to handle the schema ready event", e);
+        }
+        state = State.READY;
+    }
+
+    private void bootstrap() {
+        long begin = System.nanoTime();
+        Optional<SchemaVersionRecord> applied = schemaVersionContainer.getOne(MARKER_ID);
+        int appliedVersion = applied.map(SchemaVersionRecord::version).orElse(0);
+        if (appliedVersion >= SCHEMA_VERSION) {
+            log.info("Schema version {} is up to date, nothing to create", appliedVersion);
+        } else {
+            log.info("Upgrading schema from version {} to {}", appliedVersion, SCHEMA_VERSION);
+            // GridDB has no foreign keys, so containers do not depend on each other
+            join(
+                    CompletableFuture.runAsync(
+                            () -> {
+                                companyService.createTable();
+                                tableSeeder.seedCompanies();
+                            },
+                            executor),
+                    CompletableFuture.runAsync(
+                            () -> {
+                                userService.createTable();
+                                tableSeeder.seedUsers();
+                            },
+                            executor),
+                    CompletableFuture.runAsync(
+                            () -> {
+                                skillTagService.createTable();
+                                tableSeeder.seedSkillTags();
+                            },
+                            executor),
+                    CompletableFuture.runAsync(jobPostService::createTable, executor),
+                    CompletableFuture.runAsync(jobPostSkillService::createTable, executor),
+                    CompletableFuture.runAsync(schemaVersionContainer::createTable, executor));
+            schemaVersionContainer.saveRecord(
+                    new SchemaVersionRecord(MARKER_ID, SCHEMA_VERSION, LocalDateTime.now()));
+            log.info(
+                    "Schema version {} applied in {} ms",
+                    SCHEMA_VERSION,
+                    (System.nanoTime() - begin) / 1_000_000);
+        }
+    }
+
+    private static void join(CompletableFuture<?>... steps) {
+        try {
+            CompletableFuture.allOf(steps).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
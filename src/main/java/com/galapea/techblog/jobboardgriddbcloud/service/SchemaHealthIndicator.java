@@ -0,0 +1,33 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code schema} health component: {@code UP} once {@link SchemaBootstrap} is done,
+ * {@code OUT_OF_SERVICE} while it runs and {@code DOWN} after a failed attempt, with the error.
+ */
+@Component
+public class SchemaHealthIndicator implements HealthIndicator {
+    private final SchemaBootstrap schemaBootstrap;
+
+    public SchemaHealthIndicator(SchemaBootstrap schemaBootstrap) {
+        this.schemaBootstrap = schemaBootstrap;
+    }
+
+    @Override
+    public Health health() {
+        SchemaBootstrap.State state = schemaBootstrap.getState();
+        Health.Builder health =
+                switch (state) {
+                    case READY -> Health.up();
+                    case FAILED -> Health.down();
+                    case STARTING, BOOTSTRAPPING -> Health.outOfService();
+                };
+        schemaBootstrap.getLastFailure().ifPresent(health::withException);
+        return health.withDetail("state", state)
+                .withDetail("version", SchemaBootstrap.SCHEMA_VERSION)
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+/**
+ * Published by {@link SchemaBootstrap} once every container exists and holds its seed data, on
+ * the bootstrap thread. Components that load data from GridDB at startup listen to it instead of
+ * {@code ApplicationReadyEvent}.
+ */
+public record SchemaReadyEvent(int schemaVersion) {}
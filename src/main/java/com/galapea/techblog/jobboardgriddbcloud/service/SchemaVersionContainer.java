@@ -0,0 +1,81 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudClient;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbContainerDefinition;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
+
+/**
+ * Holds the version of the schema and seed data applied by {@link SchemaBootstrap}, as one row
+ * per marker id.
+ */
+@Component
+@MeteredContainer("JBSchemaVersion")
+public class SchemaVersionContainer {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final GridDbCloudClient gridDbCloudClient;
+    private static final String TBL_NAME = "JBSchemaVersion";
+    private static final List<GridDbColumn> COLUMNS =
+            List.of(
+                    new GridDbColumn("id", "STRING", Set.of("TREE")),
+                    new GridDbColumn("version", "INTEGER"),
+                    new GridDbColumn("appliedAt", "TIMESTAMP"));
+    static final RowCodec<SchemaVersionRecord> CODEC =
+            RowCodec.builder(COLUMNS)
+                    .build(
+                            cells ->
+                                    new SchemaVersionRecord(
+                                            cells.get(0), cells.get(1), cells.get(2)),
+                            record ->
+                                    new Object[] {
+                                        record.id(), record.version(), record.appliedAt()
+                                    });
+
+    public SchemaVersionContainer(GridDbCloudClient gridDbCloudClient) {
+        this.gridDbCloudClient = gridDbCloudClient;
+    }
+
+    public void createTable() {
+        log.info("Creating table " + TBL_NAME + " in GridDB...");
+        GridDbContainerDefinition containerDefinition =
+                GridDbContainerDefinition.build(TBL_NAME, COLUMNS);
+        this.gridDbCloudClient.createContainer(containerDefinition);
+        log.info("Created table " + TBL_NAME + " with columns: {}", COLUMNS);
+    }
+
+    /**
+     * Writes the marker straight to GridDB, bypassing the write-behind buffer, so that it is stored
+     * when this returns and never waits for a batch.
+     */
+    public void saveRecord(SchemaVersionRecord schemaVersion) {
+        this.gridDbCloudClient.registerRows(TBL_NAME, CODEC.rowsOf(List.of(schemaVersion)));
+    }
+
+    /** Returns the marker {@code id}, or nothing if it or the container does not exist yet. */
+    public Optional<SchemaVersionRecord> getOne(String id) {
+        AcquireRowsRequest requestBody =
+                AcquireRowsRequest.builder().limit(1L).condition("id == '" + id + "'").build();
+        List<SchemaVersionRecord> versions = new ArrayList<>(1);
+        try {
+            this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, versions::add);
+        } catch (GridDbException e) {
+            if (e.getStatusCode().value() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+        return versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(0));
+    }
+}
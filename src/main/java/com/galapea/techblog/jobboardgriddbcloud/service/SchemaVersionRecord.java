@@ -0,0 +1,8 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A record representing a row in the JBSchemaVersion GridDB container.
+ */
+public record SchemaVersionRecord(String id, Integer version, LocalDateTime appliedAt) {}
@@ -0,0 +1,303 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
+import com.galapea.techblog.jobboardgriddbcloud.util.RateLimiter;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Extracts the skills of job posts that have none, such as those created by
+ * {@link TableSeeder#seedJobs()} or {@link JobPostGridDbService#createAll}, so that they can be
+ * found by skill search.
+ * <p>
+ * Every {@code interval} a run scans {@code JBJobPost} for job posts without skills in the
+ * {@link SkillJobIndex} and hands them to virtual threads as the scan goes, at most
+ * {@code concurrency} at a time and {@code rate-limit} per second, so a run holds one scan page
+ * whatever the number of job posts. The skill links found are written in batches of
+ * {@code batch-size} rows.
+ * </p>
+ * <p>
+ * A run keeps no state of its own. What is done is read back from GridDB, so a restart resumes
+ * with the job posts that still have no skills. Job posts whose extraction found nothing are
+ * skipped by later runs until their description or the skill catalog changes, and after a restart
+ * are answered by the {@link SkillExtractionCache} instead of calling the model again.
+ * </p>
+ * <p>
+ * The backfill is off by default, as every run may call the model for many job posts; with
+ * {@code jobboard.skill-extraction.mode=OFFLINE} it costs no model calls. Progress and throughput
+ * are published as {@code jobboard.skill.backfill.*} meters: jobs by outcome, links written,
+ * extraction time and the jobs waiting in the current run.
+ * </p>
+ */
+@Component
+public class SkillBackfillPipeline {
+    private static final Logger log = LoggerFactory.getLogger(SkillBackfillPipeline.class);
+    private static final String METRIC_PREFIX = "jobboard.skill.backfill";
+    private static final int SCAN_PAGE_SIZE = 500;
+    private static final long STARTUP_DELAY_SECONDS = 30;
+
+    private final SkillBackfillProperties properties;
+    private final JobPostContainer jobPostContainer;
+    private final SkillJobIndex skillJobIndex;
+    private final SkillCatalog skillCatalog;
+    private final SkillExtractionService skillExtractionService;
+    private final JobPostSkillGridDbService jobPostSkillService;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("skill-backfill").daemon().factory());
+    private final ExecutorService workers =
+            Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("skill-backfill-", 0).factory());
+    private final AtomicInteger remaining = new AtomicInteger();
+    // job posts without skills in their description, by id, so later runs do not extract them
+    // again until the description or the catalog changes; only ids and hashes are kept
+    private final Map<String, Integer> emptyJobPosts = new ConcurrentHashMap<>();
+    private final Counter extracted;
+    private final Counter empty;
+    private final Counter failed;
+    private final Counter linksWritten;
+    private final Timer extraction;
+
+    // guarded by itself
+    private final Map<String, List<String>> batch = new LinkedHashMap<>();
+    private int batchRows;
+
+    public SkillBackfillPipeline(
+            SkillBackfillProperties properties,
+            JobPostContainer jobPostContainer,
+            SkillJobIndex skillJobIndex,
+            SkillCatalog skillCatalog,
+            SkillExtractionService skillExtractionService,
+            JobPostSkillGridDbService jobPostSkillService,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jobPostContainer = jobPostContainer;
+        this.skillJobIndex = skillJobIndex;
+        this.skillCatalog = skillCatalog;
+        this.skillExtractionService = skillExtractionService;
+        this.jobPostSkillService = jobPostSkillService;
+        this.extracted = jobCounter(meterRegistry, "extracted");
+        this.empty = jobCounter(meterRegistry, "empty");
+        this.failed = jobCounter(meterRegistry, "failed");
+        this.linksWritten =
+                Counter.builder(METRIC_PREFIX + ".links")
+                        .description("Skill links written by the backfill")
+                        .register(meterRegistry);
+        this.extraction =
+                Timer.builder(METRIC_PREFIX + ".extraction")
+                        .description("Time to extract the skills of one job post")
+                        .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".remaining", remaining, AtomicInteger::get)
+                .description("Job posts of the current backfill run waiting for their skills")
+                .register(meterRegistry);
+    }
+
+    private static Counter jobCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + ".jobs")
+                .description("Job posts processed by the backfill")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @EventListener(SchemaReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Skill backfill is disabled");
+            return;
+        }
+        log.info(
+                "Skill backfill every {}: concurrency={}, rateLimit={}/s, batchSize={}",
+                properties.getInterval(),
+                properties.getConcurrency(),
+                properties.getRateLimit(),
+                properties.getBatchSize());
+        // in milliseconds, as an interval under a second would round down to an invalid 0 s
+        scheduler.scheduleWithFixedDelay(
+                this::runSafely,
+                TimeUnit.SECONDS.toMillis(STARTUP_DELAY_SECONDS),
+                Math.max(1, properties.getInterval().toMillis()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule, so the next run tries again
+            log.error("Skill backfill run failed", e);
+        }
+    }
+
+    /** Extracts the skills of every job post that has none. */
+    void run() throws InterruptedException {
+        if (!skillJobIndex.isReady()) {
+            log.info("Skill index not loaded, skipping skill backfill");
+            return;
+        }
+        String catalog = skillCatalog.snapshot().fingerprint();
+        long begin = System.nanoTime();
+        int concurrency = Math.max(1, properties.getConcurrency());
+        Semaphore slots = new Semaphore(concurrency);
+        RateLimiter rateLimiter = new RateLimiter(properties.getRateLimit());
+        AtomicInteger submitted = new AtomicInteger();
+        try {
+            // job posts are handed to the workers while the scan goes on, never collected
+            jobPostContainer.forEach(
+                    SCAN_PAGE_SIZE,
+                    jobPost -> {
+                        if (skillJobIndex.hasSkills(jobPost.id())) {
+                            emptyJobPosts.remove(jobPost.id());
+                            return;
+                        }
+                        if (isKnownEmpty(jobPost, catalog)) {
+                            return;
+                        }
+                        if (submitted.getAndIncrement() == 0) {
+                            log.info("Skill backfill started");
+                        }
+                        remaining.incrementAndGet();
+                        try {
+                            rateLimiter.acquire();
+                            slots.acquire();
+                        } catch (InterruptedException e) {
+                            remaining.decrementAndGet();
+                            Thread.currentThread().interrupt();
+                            throw new CancellationException("Skill backfill interrupted");
+                        }
+                        workers.execute(
+                                () -> {
+                                    try {
+                                        process(jobPost, catalog);
+                                    } finally {
+                                        remaining.decrementAndGet();
+                                        slots.release();
+                                    }
+                                });
+                    });
+        } catch (CancellationException e) {
+            throw new InterruptedException(e.getMessage());
+        } finally {
+            // all permits are back once the last extraction has finished
+            slots.acquireUninterruptibly(concurrency);
+            slots.release(concurrency);
+            flush();
+        }
+        if (submitted.get() == 0) {
+            log.debug("No job posts without skills");
+            return;
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        log.info(
+                "Skill backfill finished {} job posts in {} s ({} jobs/s)",
+                submitted.get(),
+                Math.round(seconds),
+                String.format("%.2f", submitted.get() / Math.max(seconds, 1e-3)));
+    }
+
+    /** Whether an earlier run found no skills in the same description and catalog. */
+    private boolean isKnownEmpty(JobPostRecord jobPost, String catalog) {
+        Integer key = emptyJobPosts.get(jobPost.id());
+        return key != null && key == emptyKey(jobPost, catalog);
+    }
+
+    private static int emptyKey(JobPostRecord jobPost, String catalog) {
+        return Objects.hash(catalog, jobPost.description());
+    }
+
+    private void process(JobPostRecord jobPost, String catalog) {
+        List<String> skillTagIds;
+        try {
+            skillTagIds =
+                    extraction
+                            .recordCallable(
+                                    () ->
+                                            skillExtractionService.extract(
+                                                    jobPost.id(), jobPost.description()))
+                            .stream()
+                            .map(SkillTagDTO::getId)
+                            .filter(Objects::nonNull)
+                            .distinct()
+                            .toList();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to extract the skills of job post {}", jobPost.id(), e);
+            return;
+        }
+        if (skillTagIds.isEmpty()) {
+            empty.increment();
+            emptyJobPosts.put(jobPost.id(), emptyKey(jobPost, catalog));
+            return;
+        }
+        boolean full;
+        synchronized (batch) {
+            batch.put(jobPost.id(), skillTagIds);
+            batchRows += skillTagIds.size();
+            full = batchRows >= properties.getBatchSize();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        Map<String, List<String>> skillTagIdsByJobPostId;
+        synchronized (batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            skillTagIdsByJobPostId = new LinkedHashMap<>(batch);
+            batch.clear();
+            batchRows = 0;
+        }
+        // skills saved from the edit page while the job post was being extracted take precedence
+        skillTagIdsByJobPostId.keySet().removeIf(skillJobIndex::hasSkills);
+        int links = skillTagIdsByJobPostId.values().stream().mapToInt(List::size).sum();
+        try {
+            jobPostSkillService.createSkillsForJobPosts(skillTagIdsByJobPostId);
+            extracted.increment(skillTagIdsByJobPostId.size());
+            linksWritten.increment(links);
+            log.info(
+                    "Skill backfill wrote {} skill links for {} job posts, {} left",
+                    links,
+                    skillTagIdsByJobPostId.size(),
+                    remaining.get());
+        } catch (GridDbException e) {
+            failed.increment(skillTagIdsByJobPostId.size());
+            log.error(
+                    "Failed to write the skills of {} job posts, retrying next run",
+                    skillTagIdsByJobPostId.size(),
+                    e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobboard.skill-backfill")
+public class SkillBackfillProperties {
+
+    /**
+     * Whether job posts without skills are extracted in the background. Unless the extraction mode
+     * is {@code OFFLINE}, this calls the model for each of them.
+     */
+    private boolean enabled = false;
+
+    /** Delay between the end of one backfill run and the start of the next. */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /** Extractions running at the same time. */
+    private int concurrency = 4;
+
+    /** Extractions started per second, to stay within the rate limit of the model. */
+    private double rateLimit = 2;
+
+    /** Skill links collected before they are written to GridDB in one request. */
+    private int batchSize = 100;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return this.interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public double getRateLimit() {
+        return this.rateLimit;
+    }
+
+    public void setRateLimit(double rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
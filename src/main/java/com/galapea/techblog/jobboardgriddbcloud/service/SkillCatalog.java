@@ -0,0 +1,136 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.util.TextTokenizer;
+
+/**
+ * The skill tag catalog held in memory, loaded from {@code JBSkillTag} once the schema is ready
+ * and updated by {@link SkillTagGridDbService}.
+ * <p>
+ * Readers get an immutable {@link Snapshot}. Its {@code version} grows with every change, so
+ * structures derived from the catalog (tries, matchers, cache keys) can tell when they are stale.
+ * The version restarts with the application; the {@code fingerprint}, a hash of the catalog
+ * content, identifies the same catalog across restarts. Every new snapshot is also published as a
+ * {@link SkillCatalogChangedEvent}.
+ * </p>
+ */
+@Component
+public class SkillCatalog {
+    private static final Logger log = LoggerFactory.getLogger(SkillCatalog.class);
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final SkillTagContainer skillTagContainer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Object updateLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.of(0, Map.of());
+
+    public SkillCatalog(
+            SkillTagContainer skillTagContainer, ApplicationEventPublisher eventPublisher) {
+        this.skillTagContainer = skillTagContainer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(SchemaReadyEvent.class)
+    public void load() {
+        Map<String, String> names = new LinkedHashMap<>();
+        try {
+            skillTagContainer.forEach(
+                    SCAN_PAGE_SIZE, skillTag -> names.put(skillTag.id(), skillTag.name()));
+        } catch (RuntimeException e) {
+            log.error("Failed to load the skill catalog", e);
+            return;
+        }
+        Snapshot loaded;
+        synchronized (updateLock) {
+            loaded = Snapshot.of(snapshot.version() + 1, names);
+            snapshot = loaded;
+        }
+        log.info("Loaded skill catalog with {} skill tags", names.size());
+        eventPublisher.publishEvent(new SkillCatalogChangedEvent(loaded));
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /** Adds or renames skill tags, given as names by id. */
+    public void putAll(Map<String, String> namesById) {
+        Snapshot changed;
+        synchronized (updateLock) {
+            Map<String, String> names = new LinkedHashMap<>(snapshot.namesById());
+            names.putAll(namesById);
+            changed = Snapshot.of(snapshot.version() + 1, names);
+            snapshot = changed;
+        }
+        eventPublisher.publishEvent(new SkillCatalogChangedEvent(changed));
+    }
+
+    /** Catalog key of a skill name: trimmed, lower case and without accents. */
+    public static String normalize(String skillName) {
+        return skillName == null ? "" : TextTokenizer.normalize(skillName.trim());
+    }
+
+    /**
+     * An immutable state of the catalog.
+     *
+     * @param fingerprint
+     *            SHA-256 of the skill tag ids and names, in hex
+     * @param namesById
+     *            skill names by skill tag id, in load order
+     * @param idsByName
+     *            skill tag ids by {@linkplain #normalize normalized} name
+     */
+    public record Snapshot(
+            long version,
+            String fingerprint,
+            Map<String, String> namesById,
+            Map<String, String> idsByName) {
+
+        static Snapshot of(long version, Map<String, String> namesById) {
+            Map<String, String> idsByName = new HashMap<>();
+            namesById.forEach((id, name) -> idsByName.put(normalize(name), id));
+            return new Snapshot(
+                    version,
+                    fingerprint(namesById),
+                    Collections.unmodifiableMap(namesById),
+                    Collections.unmodifiableMap(idsByName));
+        }
+
+        // sorted by id so that the load order does not matter
+        private static String fingerprint(Map<String, String> namesById) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            new TreeMap<>(namesById)
+                    .forEach(
+                            (id, name) ->
+                                    digest.update(
+                                            (id + '\t' + name + '\n')
+                                                    .getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        public Optional<String> idOf(String skillName) {
+            return Optional.ofNullable(idsByName.get(normalize(skillName)));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+/**
+ * Published by {@link SkillCatalog} after it loaded or changed, on the thread that changed it.
+ * Listeners that do more than swap a reference should move their work off that thread.
+ */
+public record SkillCatalogChangedEvent(SkillCatalog.Snapshot snapshot) {}
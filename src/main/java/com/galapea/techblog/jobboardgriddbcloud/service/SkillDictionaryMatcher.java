@@ -0,0 +1,65 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.util.AhoCorasick;
+import com.galapea.techblog.jobboardgriddbcloud.util.TextTokenizer;
+
+/**
+ * Finds the skills of the {@link SkillCatalog} that a text mentions by name, with an
+ * {@link AhoCorasick} automaton over the normalized skill names. The automaton is rebuilt on the
+ * first lookup after the catalog changes.
+ */
+@Component
+public class SkillDictionaryMatcher {
+    private static final Logger log = LoggerFactory.getLogger(SkillDictionaryMatcher.class);
+
+    private final SkillCatalog skillCatalog;
+    private volatile Dictionary dictionary = new Dictionary(-1, AhoCorasick.of(Map.of()));
+
+    public SkillDictionaryMatcher(SkillCatalog skillCatalog) {
+        this.skillCatalog = skillCatalog;
+    }
+
+    /** Returns the ids of the skill tags mentioned in {@code text}, in order of first mention. */
+    public Set<String> match(String text) {
+        Set<String> skillTagIds = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return skillTagIds;
+        }
+        for (AhoCorasick.Match<String> match :
+                currentDictionary().automaton().findAll(TextTokenizer.normalize(text))) {
+            skillTagIds.add(match.value());
+        }
+        return skillTagIds;
+    }
+
+    private Dictionary currentDictionary() {
+        SkillCatalog.Snapshot snapshot = skillCatalog.snapshot();
+        Dictionary current = dictionary;
+        if (current.version() == snapshot.version()) {
+            return current;
+        }
+        synchronized (this) {
+            if (dictionary.version() != snapshot.version()) {
+                Map<String, String> idsByName = new HashMap<>(snapshot.idsByName());
+                idsByName.remove("");
+                dictionary = new Dictionary(snapshot.version(), AhoCorasick.of(idsByName));
+                log.info(
+                        "Built skill dictionary with {} names (catalog version {})",
+                        idsByName.size(),
+                        snapshot.version());
+            }
+            return dictionary;
+        }
+    }
+
+    private record Dictionary(long version, AhoCorasick<String> automaton) {}
+}
@@ -0,0 +1,220 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galapea.techblog.jobboardgriddbcloud.service.SkillExtractionService.SkillResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Two-tier cache of skill extraction results, so that extracting the skills of an unchanged job
+ * description does not call the model again.
+ * <p>
+ * Entries are keyed by a SHA-256 of the extraction mode and the description, under the
+ * {@linkplain SkillCatalog.Snapshot#fingerprint() fingerprint} of the skill catalog they were
+ * extracted against. A bounded Caffeine cache sits in front of one JSON file per entry in
+ * {@code <directory>/<fingerprint>/<key>.json}. When the catalog changes, its fingerprint does too:
+ * the memory tier is cleared and the directories of other fingerprints are deleted in the
+ * background, so results never outlive the catalog they refer to.
+ * </p>
+ * <p>
+ * The memory tier is published as the {@code skillExtractions} cache meters, the disk tier as the
+ * {@code jobboard.skill.extraction.cache.disk} counter by {@code result}.
+ * </p>
+ */
+@Component
+public class SkillExtractionCache {
+    private static final Logger log = LoggerFactory.getLogger(SkillExtractionCache.class);
+
+    private final SkillCatalog skillCatalog;
+    private final Path directory;
+    private final Cache<String, SkillResponse> memory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter diskHits;
+    private final Counter diskMisses;
+    // one cleanup at a time, each keeping only the catalog current when it runs
+    private final ExecutorService cleanup =
+            Executors.newSingleThreadExecutor(
+                    Thread.ofVirtual().name("skill-cache-cleanup").factory());
+    private volatile String fingerprint;
+
+    public SkillExtractionCache(
+            SkillCatalog skillCatalog,
+            SkillExtractionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.skillCatalog = skillCatalog;
+        Path configured = properties.getCache().getDirectory();
+        this.directory = configured == null || configured.toString().isEmpty() ? null : configured;
+        this.memory =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getCache().getMaximumSize())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, "skillExtractions");
+        this.diskHits = diskCounter(meterRegistry, "hit");
+        this.diskMisses = diskCounter(meterRegistry, "miss");
+    }
+
+    private static Counter diskCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jobboard.skill.extraction.cache.disk")
+                .description("Lookups in the on-disk skill extraction cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** Drops the results of the previous catalog once the catalog changed. */
+    @EventListener(SkillCatalogChangedEvent.class)
+    public void onCatalogChanged(SkillCatalogChangedEvent event) {
+        String current = event.snapshot().fingerprint();
+        if (current.equals(fingerprint)) {
+            return;
+        }
+        fingerprint = current;
+        memory.invalidateAll();
+        if (directory != null) {
+            cleanup.execute(() -> deleteOtherCatalogs(skillCatalog.snapshot().fingerprint()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleanup.shutdownNow();
+    }
+
+    /** Returns the cached result of extracting skills from {@code description} in {@code mode}. */
+    public Optional<SkillResponse> get(SkillExtractionProperties.Mode mode, String description) {
+        String catalog = currentFingerprint();
+        if (catalog == null) {
+            return Optional.empty();
+        }
+        String key = sha256(mode.name() + '\n' + description);
+        SkillResponse cached = memory.getIfPresent(catalog + '/' + key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<SkillResponse> stored = read(catalog, key);
+        stored.ifPresent(response -> memory.put(catalog + '/' + key, response));
+        return stored;
+    }
+
+    public void put(
+            SkillExtractionProperties.Mode mode, String description, SkillResponse response) {
+        String catalog = currentFingerprint();
+        if (catalog == null) {
+            return;
+        }
+        String key = sha256(mode.name() + '\n' + description);
+        memory.put(catalog + '/' + key, response);
+        write(catalog, key, response);
+    }
+
+    /** Fingerprint of the loaded catalog, or {@code null} while it is not loaded yet. */
+    private String currentFingerprint() {
+        SkillCatalog.Snapshot snapshot = skillCatalog.snapshot();
+        return snapshot.version() == 0 ? null : snapshot.fingerprint();
+    }
+
+    private Optional<SkillResponse> read(String catalog, String key) {
+        if (directory == null) {
+            return Optional.empty();
+        }
+        Path file = file(catalog, key);
+        if (!Files.isRegularFile(file)) {
+            diskMisses.increment();
+            return Optional.empty();
+        }
+        try {
+            SkillResponse response = objectMapper.readValue(file.toFile(), SkillResponse.class);
+            diskHits.increment();
+            return Optional.of(response);
+        } catch (IOException e) {
+            diskMisses.increment();
+            log.warn("Ignoring unreadable skill extraction cache entry {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void write(String catalog, String key, SkillResponse response) {
+        if (directory == null) {
+            return;
+        }
+        Path file = file(catalog, key);
+        try {
+            Files.createDirectories(file.getParent());
+            // write aside and move, so that a concurrent reader never sees half a file
+            Path temp = Files.createTempFile(file.getParent(), "skills", ".tmp");
+            objectMapper.writeValue(temp.toFile(), response);
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store skill extraction cache entry {}", file, e);
+        }
+    }
+
+    private Path file(String catalog, String key) {
+        return directory.resolve(catalog).resolve(key + ".json");
+    }
+
+    private void deleteOtherCatalogs(String current) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> catalogs =
+                Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path catalog : catalogs) {
+                if (!catalog.getFileName().toString().equals(current)) {
+                    delete(catalog);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up the skill extraction cache in {}", directory, e);
+        }
+    }
+
+    private static void delete(Path catalog) throws IOException {
+        try (Stream<Path> paths = Files.walk(catalog)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        log.info("Deleted stale skill extraction cache {}", catalog);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of()
+                    .formatHex(
+                            MessageDigest.getInstance("SHA-256")
+                                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jobboard.skill-extraction")
+public class SkillExtractionProperties {
+
+    /**
+     * {@code HYBRID} asks the model to confirm the skills found by the local dictionary, sending
+     * only those skills and the sentences that mention them; {@code OFFLINE} returns the dictionary
+     * matches without calling the model; {@code LLM} sends the full description and catalog.
+     */
+    private Mode mode = Mode.HYBRID;
+
+    /** Size of the catalog sent to the model in {@code LLM} mode. */
+    private long catalogLimit = 200;
+
+    private final Cache cache = new Cache();
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public long getCatalogLimit() {
+        return this.catalogLimit;
+    }
+
+    public void setCatalogLimit(long catalogLimit) {
+        this.catalogLimit = catalogLimit;
+    }
+
+    public Cache getCache() {
+        return this.cache;
+    }
+
+    public enum Mode {
+        LLM,
+        HYBRID,
+        OFFLINE
+    }
+
+    public static class Cache {
+
+        /** Extraction results kept in memory, least recently used first out. */
+        private long maximumSize = 1000;
+
+        /**
+         * Directory of the on-disk tier, which survives restarts; leave empty to cache in memory
+         * only.
+         */
+        private Path directory =
+                Path.of(System.getProperty("java.io.tmpdir"), "jobboard", "skills");
+
+        public long getMaximumSize() {
+            return this.maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Path getDirectory() {
+            return this.directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galapea.techblog.jobboardgriddbcloud.model.JobPostDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Extracts the required skills of a job post, in the way set by
+ * {@link SkillExtractionProperties#getMode()}.
+ * <p>
+ * The {@link SkillDictionaryMatcher} first finds the catalog skills that the description names. In
+ * {@code OFFLINE} mode these are the result. In {@code HYBRID} mode the model only sees those
+ * candidates and the sentences that mention them, and decides which ones the job requires; a
+ * description that names no catalog skill is answered without a model call.
+ * </p>
+ * <p>
+ * Results that involve the model are kept in the {@link SkillExtractionCache}, so an unchanged
+ * description is only sent once per catalog.
+ * </p>
+ * <p>
+ * {@link #extractStream} streams the answer of the model instead, and emits every skill as soon as
+ * its JSON object is complete.
+ * </p>
+ */
+@Service
+public class SkillExtractionService {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+|\\R+");
+
+    private final ChatModel chatModel;
+    private final SkillDictionaryMatcher skillDictionaryMatcher;
+    private final SkillCatalog skillCatalog;
+    private final SkillTagGridDbService skillTagService;
+    private final SkillExtractionProperties properties;
+    private final SkillExtractionCache cache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BeanOutputConverter<SkillResponse> outputConverter =
+            new BeanOutputConverter<>(new ParameterizedTypeReference<SkillResponse>() {});
+
+    public SkillExtractionService(
+            ChatModel chatModel,
+            SkillDictionaryMatcher skillDictionaryMatcher,
+            SkillCatalog skillCatalog,
+            SkillTagGridDbService skillTagService,
+            SkillExtractionProperties properties,
+            SkillExtractionCache cache) {
+        this.chatModel = chatModel;
+        this.skillDictionaryMatcher = skillDictionaryMatcher;
+        this.skillCatalog = skillCatalog;
+        this.skillTagService = skillTagService;
+        this.properties = properties;
+        this.cache = cache;
+    }
+
+    public List<SkillTagDTO> extract(JobPostDTO jobPostDTO) throws JsonProcessingException {
+        return extract(jobPostDTO.getId(), jobPostDTO.getDescription());
+    }
+
+    public List<SkillTagDTO> extract(String jobPostId, String jobDescription)
+            throws JsonProcessingException {
+        SkillExtractionProperties.Mode mode = properties.getMode();
+        String description = jobDescription == null ? "" : jobDescription;
+        if (mode == SkillExtractionProperties.Mode.OFFLINE) {
+            return toSkillTags(skillDictionaryMatcher.match(description));
+        }
+        Optional<SkillResponse> cached = cache.get(mode, description);
+        if (cached.isPresent()) {
+            log.info("Skill extraction served from cache for job {}", jobPostId);
+            return cached.get().skills();
+        }
+        ModelRequest request = modelRequest(mode, description);
+        List<SkillTagDTO> skills = request == null ? List.of() : generateSkills(request);
+        cache.put(mode, description, new SkillResponse(skills));
+        return skills;
+    }
+
+    /**
+     * Like {@link #extract(String, String)}, but emits the skills one by one while the model is
+     * still answering. Catalog lookups run on the bounded elastic scheduler, so the caller's thread
+     * is never blocked.
+     */
+    public Flux<SkillTagDTO> extractStream(String jobPostId, String jobDescription) {
+        SkillExtractionProperties.Mode mode = properties.getMode();
+        String description = jobDescription == null ? "" : jobDescription;
+        if (mode == SkillExtractionProperties.Mode.OFFLINE) {
+            return Flux.defer(
+                    () ->
+                            Flux.fromIterable(
+                                    toSkillTags(skillDictionaryMatcher.match(description))));
+        }
+        return Mono.fromCallable(() -> cache.get(mode, description))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(
+                        cached -> {
+                            if (cached.isPresent()) {
+                                log.info(
+                                        "Skill extraction served from cache for job {}", jobPostId);
+                                return Flux.fromIterable(cached.get().skills());
+                            }
+                            try {
+                                return streamSkills(mode, description);
+                            } catch (JsonProcessingException e) {
+                                return Flux.error(e);
+                            }
+                        });
+    }
+
+    private Flux<SkillTagDTO> streamSkills(SkillExtractionProperties.Mode mode, String description)
+            throws JsonProcessingException {
+        ModelRequest request = modelRequest(mode, description);
+        if (request == null) {
+            cache.put(mode, description, new SkillResponse(List.of()));
+            return Flux.empty();
+        }
+        Prompt prompt = prompt(request);
+        SkillStreamParser parser = new SkillStreamParser();
+        Set<String> seen = new HashSet<>();
+        List<SkillTagDTO> skills = new ArrayList<>();
+        return chatModel.stream(prompt)
+                .mapNotNull(SkillExtractionService::textOf)
+                .concatMapIterable(parser::feed)
+                .filter(request::allows)
+                .filter(skill -> seen.add(skill.getId()))
+                .doOnNext(skills::add)
+                .doOnComplete(() -> cache.put(mode, description, new SkillResponse(skills)));
+    }
+
+    private static String textOf(ChatResponse response) {
+        return response.getResult() == null || response.getResult().getOutput() == null
+                ? null
+                : response.getResult().getOutput().getText();
+    }
+
+    /**
+     * What to ask the model for the description, or {@code null} if the answer is known to be
+     * empty.
+     */
+    private ModelRequest modelRequest(SkillExtractionProperties.Mode mode, String description) {
+        if (mode == SkillExtractionProperties.Mode.LLM) {
+            return new ModelRequest(
+                    description,
+                    skillTagService.findAll(properties.getCatalogLimit()),
+                    skill -> skill.getId() != null);
+        }
+        Set<String> candidateIds = new LinkedHashSet<>();
+        List<String> mentioningSentences = new ArrayList<>();
+        for (String sentence : SENTENCE_END.split(description)) {
+            Set<String> mentioned = skillDictionaryMatcher.match(sentence);
+            if (!mentioned.isEmpty()) {
+                candidateIds.addAll(mentioned);
+                mentioningSentences.add(sentence.trim());
+            }
+        }
+        if (candidateIds.isEmpty()) {
+            log.info("No catalog skill mentioned, skipping the model call");
+            return null;
+        }
+        log.info(
+                "Asking the model about {} candidate skills in {} sentences",
+                candidateIds.size(),
+                mentioningSentences.size());
+        // the model may only confirm candidates, never add skills
+        return new ModelRequest(
+                String.join("\n", mentioningSentences),
+                toSkillTags(candidateIds),
+                skill -> skill.getId() != null && candidateIds.contains(skill.getId()));
+    }
+
+    private List<SkillTagDTO> toSkillTags(Set<String> skillTagIds) {
+        Map<String, String> names = skillCatalog.snapshot().namesById();
+        return skillTagIds.stream()
+                .map(
+                        id -> {
+                            SkillTagDTO skillTag = new SkillTagDTO();
+                            skillTag.setId(id);
+                            skillTag.setName(names.get(id));
+                            return skillTag;
+                        })
+                .collect(Collectors.toList());
+    }
+
+    private List<SkillTagDTO> generateSkills(ModelRequest request) throws JsonProcessingException {
+        var generation = this.chatModel.call(prompt(request)).getResult();
+        String outputText = generation.getOutput().getText();
+        log.info(">>>>= AI outputText:  {}", outputText);
+        SkillResponse skillResponse = outputConverter.convert(outputText);
+        return skillResponse.skills().stream().filter(request::allows).collect(Collectors.toList());
+    }
+
+    private Prompt prompt(ModelRequest request) throws JsonProcessingException {
+        String skillCatalogJson = objectMapper.writeValueAsString(request.skillTags());
+        String format = outputConverter.getFormat();
+        // @formatter:off
+        String promptStr =
+                """
+                You are an AI assistant that extracts required skills from a job description.
+                TASK:
+                - Only return skills present in the provided JSON skill catalog.
+                - Matching is case-insensitive.
+                - Do not invent or include skills not in the catalog.
+                - Output strictly as a JSON array of objects.
+
+                NOW PROCESS:
+                <JOB_DESCRIPTION>
+                {jobDescription}
+                </JOB_DESCRIPTION>
+                <SKILL_LIST>
+                {skillCatalog}
+                </SKILL_LIST>
+
+                {format}
+            """;
+        // @formatter:on
+        return PromptTemplate.builder()
+                .template(promptStr)
+                .build()
+                .create(
+                        Map.of(
+                                "jobDescription",
+                                request.jobDescription(),
+                                "skillCatalog",
+                                skillCatalogJson,
+                                "format",
+                                format),
+                        OpenAiChatOptions.builder()
+                                .responseFormat(
+                                        new ResponseFormat(ResponseFormat.Type.JSON_OBJECT, null))
+                                .build());
+    }
+
+    /**
+     * A job description, the skills the model may choose from, and the check its answer must pass.
+     */
+    private record ModelRequest(
+            String jobDescription, List<SkillTagDTO> skillTags, Predicate<SkillTagDTO> allowed) {
+
+        boolean allows(SkillTagDTO skill) {
+            return allowed.test(skill);
+        }
+    }
+
+    record SkillResponse(List<SkillTagDTO> skills) {}
+}
@@ -0,0 +1,295 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index from skill tags to the job posts that require them, built from
+ * {@code JBJobPostSkill}.
+ * <p>
+ * Every job post that has at least one skill gets a dense ordinal, assigned in job id order. Since
+ * job ids are TSIDs, a higher ordinal means a newer job post. Each skill tag has a posting list,
+ * a {@link BitSet} of job ordinals, so an AND search over several skills is a bitwise
+ * intersection and an OR search a union, without a GridDB round trip.
+ * </p>
+ * <p>
+ * The index is loaded once the schema is ready and is kept current by the services that
+ * write skill links. Until it is loaded, {@link #isReady()} returns {@code false} and callers fall
+ * back to SQL. Changes made while a load scans {@code JBJobPostSkill} are applied to the index in
+ * use and replayed on the loaded one, so none is lost when it replaces the other.
+ * </p>
+ */
+@Component
+public class SkillJobIndex {
+    private static final Logger log = LoggerFactory.getLogger(SkillJobIndex.class);
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final JobPostSkillContainer jobPostSkillContainer;
+    private final SkillCatalog skillCatalog;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // not a monitor, so a load on a virtual thread does not pin its carrier while it scans
+    private final Lock loadLock = new ReentrantLock();
+
+    // all fields below are guarded by lock
+    private final Map<String, Integer> ordinalByJobId = new HashMap<>();
+    private final List<String> jobIdByOrdinal = new ArrayList<>();
+    private final List<Set<String>> skillTagIdsByOrdinal = new ArrayList<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final Map<String, Integer> jobCountBySkillTagId = new HashMap<>();
+    private boolean ready;
+    // changes made while load() scans, or null when no load is running
+    private List<Runnable> changesDuringLoad;
+
+    public SkillJobIndex(JobPostSkillContainer jobPostSkillContainer, SkillCatalog skillCatalog) {
+        this.jobPostSkillContainer = jobPostSkillContainer;
+        this.skillCatalog = skillCatalog;
+    }
+
+    @EventListener(SchemaReadyEvent.class)
+    public void load() {
+        loadLock.lock();
+        try {
+            long begin = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<String, Set<String>> skillsByJobId = new HashMap<>();
+            try {
+                jobPostSkillContainer.forEach(
+                        SCAN_PAGE_SIZE,
+                        link ->
+                                skillsByJobId
+                                        .computeIfAbsent(link.jobPostId(), k -> new HashSet<>())
+                                        .add(link.skillTagId()));
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                log.error("Failed to load the skill index, searching by SQL instead", e);
+                return;
+            }
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                clear();
+                for (String jobPostId : new TreeSet<>(skillsByJobId.keySet())) {
+                    add(jobPostId, skillsByJobId.get(jobPostId));
+                }
+                // the scan may have missed them, applying them again is harmless
+                changesDuringLoad.forEach(Runnable::run);
+                replayed = changesDuringLoad.size();
+                changesDuringLoad = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info(
+                    "Loaded skill index: {} job posts, {} changes replayed, in {} ms",
+                    skillsByJobId.size(),
+                    replayed,
+                    (System.nanoTime() - begin) / 1_000_000);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the job posts that have all ({@code matchAll}) or any of the named skills,
+     * newest first. Skill names are resolved through the {@link SkillCatalog}; an unknown name
+     * matches no job.
+     */
+    public List<String> search(Collection<String> skillNames, boolean matchAll, int limit) {
+        SkillCatalog.Snapshot catalog = skillCatalog.snapshot();
+        lock.readLock().lock();
+        try {
+            BitSet matches = null;
+            for (String skillName : skillNames) {
+                String skillTagId = catalog.idOf(skillName).orElse(null);
+                BitSet posting = skillTagId == null ? null : postings.get(skillTagId);
+                if (posting == null) {
+                    if (matchAll) {
+                        return List.of();
+                    }
+                    continue;
+                }
+                if (matches == null) {
+                    matches = (BitSet) posting.clone();
+                } else if (matchAll) {
+                    matches.and(posting);
+                } else {
+                    matches.or(posting);
+                }
+            }
+            if (matches == null) {
+                return List.of();
+            }
+            List<String> jobPostIds = new ArrayList<>(Math.min(limit, matches.cardinality()));
+            for (int ordinal = matches.length() - 1;
+                    ordinal >= 0 && jobPostIds.size() < limit;
+                    ordinal = matches.previousSetBit(ordinal - 1)) {
+                jobPostIds.add(jobIdByOrdinal.get(ordinal));
+            }
+            return jobPostIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the number of job posts that require each of the given skill tags. */
+    public int[] jobCounts(List<String> skillTagIds) {
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[skillTagIds.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = jobCountBySkillTagId.getOrDefault(skillTagIds.get(i), 0);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Whether the job post has at least one skill. */
+    public boolean hasSkills(String jobPostId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalByJobId.get(jobPostId);
+            return ordinal != null && !skillTagIdsByOrdinal.get(ordinal).isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Sets the skills of a job post to exactly {@code skillTagIds}. */
+    public void replaceSkills(String jobPostId, Collection<String> skillTagIds) {
+        List<String> copy = List.copyOf(skillTagIds);
+        change(
+                () -> {
+                    remove(jobPostId);
+                    add(jobPostId, copy);
+                });
+    }
+
+    /** Adds {@code skillTagIds} to the skills of a job post. */
+    public void addSkills(String jobPostId, Collection<String> skillTagIds) {
+        List<String> copy = List.copyOf(skillTagIds);
+        change(() -> add(jobPostId, copy));
+    }
+
+    /** Removes {@code skillTagIds} from the skills of a job post. */
+    public void removeSkills(String jobPostId, Collection<String> skillTagIds) {
+        List<String> copy = List.copyOf(skillTagIds);
+        change(() -> remove(jobPostId, copy));
+    }
+
+    public void removeSkillTag(String skillTagId) {
+        change(
+                () -> {
+                    BitSet posting = postings.remove(skillTagId);
+                    jobCountBySkillTagId.remove(skillTagId);
+                    if (posting != null) {
+                        posting.stream()
+                                .forEach(
+                                        ordinal ->
+                                                skillTagIdsByOrdinal
+                                                        .get(ordinal)
+                                                        .remove(skillTagId));
+                    }
+                });
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(String jobPostId, Collection<String> skillTagIds) {
+        if (skillTagIds.isEmpty()) {
+            return;
+        }
+        Integer ordinal = ordinalByJobId.get(jobPostId);
+        if (ordinal == null) {
+            ordinal = jobIdByOrdinal.size();
+            ordinalByJobId.put(jobPostId, ordinal);
+            jobIdByOrdinal.add(jobPostId);
+            skillTagIdsByOrdinal.add(new HashSet<>());
+        }
+        for (String skillTagId : skillTagIds) {
+            if (skillTagIdsByOrdinal.get(ordinal).add(skillTagId)) {
+                postings.computeIfAbsent(skillTagId, k -> new BitSet()).set(ordinal);
+                jobCountBySkillTagId.merge(skillTagId, 1, Integer::sum);
+            }
+        }
+    }
+
+    // the ordinal is kept so that a job post that gets skills again keeps its place
+    private void remove(String jobPostId) {
+        Integer ordinal = ordinalByJobId.get(jobPostId);
+        if (ordinal != null) {
+            remove(jobPostId, List.copyOf(skillTagIdsByOrdinal.get(ordinal)));
+        }
+    }
+
+    private void remove(String jobPostId, Collection<String> skillTagIds) {
+        Integer ordinal = ordinalByJobId.get(jobPostId);
+        if (ordinal == null) {
+            return;
+        }
+        for (String skillTagId : skillTagIds) {
+            if (!skillTagIdsByOrdinal.get(ordinal).remove(skillTagId)) {
+                continue;
+            }
+            BitSet posting = postings.get(skillTagId);
+            if (posting != null) {
+                posting.clear(ordinal);
+            }
+            jobCountBySkillTagId.computeIfPresent(skillTagId, (k, count) -> count - 1);
+        }
+    }
+
+    private void clear() {
+        ordinalByJobId.clear();
+        jobIdByOrdinal.clear();
+        skillTagIdsByOrdinal.clear();
+        postings.clear();
+        jobCountBySkillTagId.clear();
+    }
+}
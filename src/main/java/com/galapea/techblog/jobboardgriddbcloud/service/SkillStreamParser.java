@@ -0,0 +1,122 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
+
+/**
+ * Reads the skills out of a model answer while it is still being streamed.
+ * <p>
+ * The answer is JSON such as {@code {"skills":[{"id":"skt_1","name":"Java"}, ...]}}, arriving in
+ * chunks that split it anywhere. Chunks go through Jackson's non-blocking parser, and every object
+ * with a {@code name} is returned as soon as its closing brace has arrived. Text before the first
+ * brace or bracket and after the end of the JSON value, such as a Markdown fence, is ignored. Not
+ * thread-safe; use one instance per answer.
+ * </p>
+ */
+final class SkillStreamParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<Map<String, String>> objects = new ArrayDeque<>();
+    private int depth;
+    private boolean started;
+    private boolean finished;
+
+    SkillStreamParser() {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /** Parses the next chunk of the answer and returns the skills completed by it. */
+    List<SkillTagDTO> feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return List.of();
+        }
+        if (!started) {
+            int start = firstValueStart(chunk);
+            if (start < 0) {
+                return List.of();
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        List<SkillTagDTO> skills = new ArrayList<>();
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!finished && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE) {
+                if (token == null) {
+                    finished = true;
+                    break;
+                }
+                handle(token, skills);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed skill JSON from the model", e);
+        }
+        return skills;
+    }
+
+    private void handle(JsonToken token, List<SkillTagDTO> skills) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                depth++;
+                objects.push(new HashMap<>());
+            }
+            case START_ARRAY -> depth++;
+            case VALUE_STRING -> {
+                if (!objects.isEmpty() && parser.getParsingContext().inObject()) {
+                    objects.peek().put(parser.currentName(), parser.getText());
+                }
+            }
+            case END_OBJECT -> {
+                Map<String, String> fields = objects.pop();
+                if (fields.get("name") != null) {
+                    SkillTagDTO skill = new SkillTagDTO();
+                    skill.setId(fields.get("id"));
+                    skill.setName(fields.get("name"));
+                    skills.add(skill);
+                }
+                closeValue();
+            }
+            case END_ARRAY -> closeValue();
+            default -> {}
+        }
+    }
+
+    // whatever follows the closing bracket of the root value is not JSON
+    private void closeValue() {
+        if (--depth == 0) {
+            finished = true;
+        }
+    }
+
+    private static int firstValueStart(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,9 +1,10 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,30 +16,39 @@ import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudSQLStmt;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbColumn;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbContainerDefinition;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.MeteredContainer;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowCodec;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.RowWriteBuffer;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
-import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsResponse;
 
 @Component
+@MeteredContainer("JBSkillTag")
 public class SkillTagContainer {
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final GridDbCloudClient gridDbCloudClient;
+    private final RowWriteBuffer rowWriteBuffer;
     private static final String TBL_NAME = "JBSkillTag";
-
-    public SkillTagContainer(GridDbCloudClient gridDbCloudClient) {
+    private static final List<GridDbColumn> COLUMNS =
+            List.of(
+                    new GridDbColumn("id", "STRING", Set.of("TREE")),
+                    new GridDbColumn("name", "STRING", Set.of("TREE")));
+    static final RowCodec<SkillTagRecord> CODEC =
+            RowCodec.builder(COLUMNS)
+                    .build(
+                            cells -> new SkillTagRecord(cells.get(0), cells.get(1)),
+                            record -> new Object[] {record.id(), record.name()});
+
+    public SkillTagContainer(GridDbCloudClient gridDbCloudClient, RowWriteBuffer rowWriteBuffer) {
         this.gridDbCloudClient = gridDbCloudClient;
+        this.rowWriteBuffer = rowWriteBuffer;
     }
 
     public void createTable() {
         log.info("Creating table " + TBL_NAME + " in GridDB...");
-        List<GridDbColumn> columns =
-                List.of(
-                        new GridDbColumn("id", "STRING", Set.of("TREE")),
-                        new GridDbColumn("name", "STRING", Set.of("TREE")));
-
         GridDbContainerDefinition containerDefinition =
-                GridDbContainerDefinition.build(TBL_NAME, columns);
+                GridDbContainerDefinition.build(TBL_NAME, COLUMNS);
         this.gridDbCloudClient.createContainer(containerDefinition);
-        log.info("Created table " + TBL_NAME + " with columns: {}", columns);
+        log.info("Created table " + TBL_NAME + " with columns: {}", COLUMNS);
     }
 
     private void post(String uri, Object body) {
@@ -80,26 +90,8 @@ public class SkillTagContainer {
     }
 
     public void saveRecords(List<SkillTagRecord> skillTagRecords) {
-        // Initialize a StringBuilder to create the JSON-like array representation
-        StringBuilder sb = new StringBuilder();
-        sb.append("["); // Start the outer array
-        for (int i = 0; i < skillTagRecords.size(); i++) {
-            SkillTagRecord record = skillTagRecords.get(i);
-            sb.append("["); // Start the inner array (each record)
-            // Append each record field in order
-            sb.append("\"").append(record.id()).append("\"");
-            sb.append(", ");
-            sb.append("\"").append(record.name()).append("\"");
-            sb.append("]"); // End the inner array
-            // Add a comma between record, except for the last one
-            if (i < skillTagRecords.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append("]"); // End the outer array
-        String result = sb.toString();
-        log.info("SkillTags array: {}", result);
-        this.gridDbCloudClient.registerRows(TBL_NAME, result);
+        log.info("Registering {} skill tags in GridDB", skillTagRecords.size());
+        this.rowWriteBuffer.write(TBL_NAME, skillTagRecords.size(), CODEC.rowsOf(skillTagRecords));
     }
 
     public List<SkillTagRecord> getAll() {
@@ -109,27 +101,24 @@ public class SkillTagContainer {
     public List<SkillTagRecord> getAll(Long limit) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(limit).sort("name ASC").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<SkillTagRecord> skillTags = convertResponseToRecord(response);
+        List<SkillTagRecord> skillTags = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, skillTags::add);
         log.info("Fetched {} skill tags from GridDB", skillTags.size());
         return skillTags;
     }
 
+    /** Passes every skill tag to {@code consumer}, reading {@code pageSize} rows at a time. */
+    public void forEach(int pageSize, Consumer<SkillTagRecord> consumer) {
+        long count =
+                this.gridDbCloudClient.scanRows(
+                        TBL_NAME, pageSize, CODEC, SkillTagRecord::id, consumer);
+        log.info("Scanned {} skill tags from GridDB", count);
+    }
+
     public Optional<SkillTagRecord> getOne(String id) {
         AcquireRowsRequest requestBody =
                 AcquireRowsRequest.builder().limit(1L).condition("id == \'" + id + "\'").build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<SkillTagRecord> skillTags = convertResponseToRecord(response);
-        log.info("Fetched {} skill tags from GridDB", skillTags.size());
-        return skillTags.isEmpty() ? Optional.empty() : Optional.of(skillTags.get(0));
+        return getFirst(requestBody);
     }
 
     public Optional<SkillTagRecord> getOneByName(String name) {
@@ -138,12 +127,12 @@ public class SkillTagContainer {
                         .limit(1L)
                         .condition("name == \'" + escapeString(name) + "\'")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return Optional.empty();
-        }
-        List<SkillTagRecord> skillTags = convertResponseToRecord(response);
+        return getFirst(requestBody);
+    }
+
+    private Optional<SkillTagRecord> getFirst(AcquireRowsRequest requestBody) {
+        List<SkillTagRecord> skillTags = new ArrayList<>(1);
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, skillTags::add);
         log.info("Fetched {} skill tags from GridDB", skillTags.size());
         return skillTags.isEmpty() ? Optional.empty() : Optional.of(skillTags.get(0));
     }
@@ -155,39 +144,12 @@ public class SkillTagContainer {
                         .condition("name LIKE '%" + escapeString(namePattern) + "%'")
                         .sort("name ASC")
                         .build();
-        AcquireRowsResponse response = this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody);
-        if (response == null || response.getRows() == null) {
-            log.error("Failed to acquire rows from GridDB");
-            return List.of();
-        }
-        List<SkillTagRecord> skillTags = convertResponseToRecord(response);
+        List<SkillTagRecord> skillTags = new ArrayList<>();
+        this.gridDbCloudClient.acquireRows(TBL_NAME, requestBody, CODEC, skillTags::add);
         log.info(
                 "Found {} skill tags matching pattern '{}' from GridDB",
                 skillTags.size(),
                 namePattern);
         return skillTags;
     }
-
-    private List<SkillTagRecord> convertResponseToRecord(AcquireRowsResponse response) {
-        List<SkillTagRecord> results =
-                response.getRows().stream()
-                        .map(
-                                row -> {
-                                    try {
-                                        String id = row.get(0).toString();
-                                        String name = row.get(1).toString();
-
-                                        return new SkillTagRecord(id, name);
-                                    } catch (Exception e) {
-                                        log.error(
-                                                "Error parsing skill tag row: {}. Error: {}",
-                                                row.toString(),
-                                                e.getMessage());
-                                        return null;
-                                    }
-                                })
-                        .filter(r -> r != null)
-                        .collect(Collectors.toList());
-        return results;
-    }
 }
@@ -1,11 +1,13 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
 import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagDTO;
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagSuggestion;
 import com.galapea.techblog.jobboardgriddbcloud.util.NotFoundException;
 import com.galapea.techblog.jobboardgriddbcloud.util.NotImplementedException;
 import com.github.f4b6a3.tsid.TsidCreator;
@@ -14,9 +16,16 @@ import com.github.f4b6a3.tsid.TsidCreator;
 public class SkillTagGridDbService {
 
     private final SkillTagContainer skillTagContainer;
+    private final SkillCatalog skillCatalog;
+    private final SkillTagSuggester skillTagSuggester;
 
-    public SkillTagGridDbService(SkillTagContainer skillTagContainer) {
+    public SkillTagGridDbService(
+            SkillTagContainer skillTagContainer,
+            SkillCatalog skillCatalog,
+            SkillTagSuggester skillTagSuggester) {
         this.skillTagContainer = skillTagContainer;
+        this.skillCatalog = skillCatalog;
+        this.skillTagSuggester = skillTagSuggester;
     }
 
     public static String nextId() {
@@ -41,6 +50,14 @@ public class SkillTagGridDbService {
                 .orElseThrow(NotFoundException::new);
     }
 
+    /**
+     * Returns up to {@code limit} skill tags containing {@code query}, most used first. Served from
+     * memory by the {@link SkillTagSuggester}.
+     */
+    public List<SkillTagSuggestion> suggest(final String query, final int limit) {
+        return skillTagSuggester.suggest(query, limit);
+    }
+
     public List<SkillTagDTO> searchByName(final String namePattern) {
         final List<SkillTagRecord> skillTags = skillTagContainer.searchByName(namePattern);
         return skillTags.stream()
@@ -52,6 +69,7 @@ public class SkillTagGridDbService {
         String id = (skillTagDTO.getId() != null) ? skillTagDTO.getId() : nextId();
         SkillTagRecord newSkillTag = new SkillTagRecord(id, skillTagDTO.getName());
         skillTagContainer.saveRecords(List.of(newSkillTag));
+        skillCatalog.putAll(Map.of(id, newSkillTag.name()));
         return id;
     }
 
@@ -68,12 +86,20 @@ public class SkillTagGridDbService {
                         .collect(Collectors.toList());
         if (!skillTagRecords.isEmpty()) {
             skillTagContainer.saveRecords(skillTagRecords);
+            skillCatalog.putAll(
+                    skillTagRecords.stream()
+                            .collect(
+                                    Collectors.toMap(
+                                            SkillTagRecord::id,
+                                            SkillTagRecord::name,
+                                            (first, last) -> last)));
         }
     }
 
     public void update(final String id, final SkillTagDTO skillTagDTO) {
         SkillTagRecord updatedSkillTag = new SkillTagRecord(id, skillTagDTO.getName());
         skillTagContainer.saveRecords(List.of(updatedSkillTag));
+        skillCatalog.putAll(Map.of(id, updatedSkillTag.name()));
     }
 
     public void delete(final String id) {
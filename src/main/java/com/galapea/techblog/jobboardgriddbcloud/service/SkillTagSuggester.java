@@ -0,0 +1,163 @@
+package com.galapea.techblog.jobboardgriddbcloud.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.galapea.techblog.jobboardgriddbcloud.model.SkillTagSuggestion;
+
+/**
+ * Autocomplete over the skill catalog, served from memory.
+ * <p>
+ * Every suffix of every normalized skill name is inserted into a trie whose nodes list the skills
+ * passing through them, so both prefixes ("jav") and infixes ("script") resolve with a walk of
+ * the query's length. Matches are ranked by where the query occurs (start of the name, start of a
+ * word, elsewhere) and then by the number of job posts that use the skill, read from the
+ * {@link SkillJobIndex}.
+ * </p>
+ * <p>
+ * The trie is immutable and built from a {@link SkillCatalog} snapshot. When the catalog version
+ * changes, the next lookup rebuilds it, which is cheap for a catalog of this size and keeps lookups
+ * free of locking otherwise.
+ * </p>
+ */
+@Component
+public class SkillTagSuggester {
+    private static final Logger log = LoggerFactory.getLogger(SkillTagSuggester.class);
+
+    private final SkillCatalog skillCatalog;
+    private final SkillJobIndex skillJobIndex;
+    private volatile Catalog catalog = Catalog.build(-1, Map.of());
+
+    public SkillTagSuggester(SkillCatalog skillCatalog, SkillJobIndex skillJobIndex) {
+        this.skillCatalog = skillCatalog;
+        this.skillJobIndex = skillJobIndex;
+    }
+
+    /**
+     * Returns up to {@code limit} skill tags whose name contains {@code query}, ignoring case and
+     * accents, best match first.
+     */
+    public List<SkillTagSuggestion> suggest(String query, int limit) {
+        String normalized = SkillCatalog.normalize(query);
+        Catalog current = currentCatalog();
+        int[] candidates = current.find(normalized);
+        if (candidates.length == 0) {
+            return List.of();
+        }
+        List<String> candidateIds =
+                Arrays.stream(candidates).mapToObj(tag -> current.ids()[tag]).toList();
+        int[] jobCounts = skillJobIndex.jobCounts(candidateIds);
+        int[] positions =
+                Arrays.stream(candidates)
+                        .map(tag -> matchPosition(current.normalizedNames()[tag], normalized))
+                        .toArray();
+        return IntStream.range(0, candidates.length)
+                .boxed()
+                .sorted(
+                        Comparator.<Integer>comparingInt(i -> positions[i])
+                                .thenComparingInt(i -> -jobCounts[i])
+                                .thenComparing(i -> current.normalizedNames()[candidates[i]]))
+                .limit(limit)
+                .map(
+                        i ->
+                                new SkillTagSuggestion(
+                                        current.ids()[candidates[i]],
+                                        current.names()[candidates[i]],
+                                        jobCounts[i]))
+                .toList();
+    }
+
+    private Catalog currentCatalog() {
+        SkillCatalog.Snapshot snapshot = skillCatalog.snapshot();
+        Catalog current = catalog;
+        if (current.version() == snapshot.version()) {
+            return current;
+        }
+        synchronized (this) {
+            if (catalog.version() != snapshot.version()) {
+                catalog = Catalog.build(snapshot.version(), snapshot.namesById());
+                log.info(
+                        "Built autocomplete trie for {} skill tags (catalog version {})",
+                        snapshot.namesById().size(),
+                        snapshot.version());
+            }
+            return catalog;
+        }
+    }
+
+    /** 0 for a match at the start of the name, 1 at the start of a word, 2 elsewhere. */
+    private static int matchPosition(String name, String query) {
+        if (name.startsWith(query)) {
+            return 0;
+        }
+        for (int from = name.indexOf(query); from > 0; from = name.indexOf(query, from + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(from - 1))) {
+                return 1;
+            }
+        }
+        return 2;
+    }
+
+    /** An immutable snapshot of the skill catalog and its suffix trie. */
+    private record Catalog(
+            long version, String[] ids, String[] names, String[] normalizedNames, Node root) {
+
+        static Catalog build(long version, Map<String, String> namesById) {
+            int size = namesById.size();
+            String[] ids = new String[size];
+            String[] names = new String[size];
+            String[] normalizedNames = new String[size];
+            Map<Node, List<Integer>> tagsByNode = new HashMap<>();
+            Node root = new Node();
+            int tag = 0;
+            for (Map.Entry<String, String> entry : namesById.entrySet()) {
+                ids[tag] = entry.getKey();
+                names[tag] = entry.getValue();
+                normalizedNames[tag] = SkillCatalog.normalize(entry.getValue());
+                String name = normalizedNames[tag];
+                for (int start = 0; start < name.length(); start++) {
+                    Node node = root;
+                    for (int i = start; i < name.length(); i++) {
+                        node = node.children.computeIfAbsent(name.charAt(i), c -> new Node());
+                        List<Integer> tags =
+                                tagsByNode.computeIfAbsent(node, n -> new ArrayList<>());
+                        // the same substring can occur twice in one name
+                        if (tags.isEmpty() || tags.get(tags.size() - 1) != tag) {
+                            tags.add(tag);
+                        }
+                    }
+                }
+                tag++;
+            }
+            tagsByNode.forEach(
+                    (node, tags) ->
+                            node.tags = tags.stream().mapToInt(Integer::intValue).toArray());
+            return new Catalog(version, ids, names, normalizedNames, root);
+        }
+
+        int[] find(String query) {
+            if (query.isEmpty()) {
+                return new int[0];
+            }
+            Node node = root;
+            for (int i = 0; i < query.length() && node != null; i++) {
+                node = node.children.get(query.charAt(i));
+            }
+            return node == null ? new int[0] : node.tags;
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private int[] tags = new int[0];
+    }
+}
@@ -1,11 +1,11 @@
 package com.galapea.techblog.jobboardgriddbcloud.service;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
@@ -18,8 +18,13 @@ import com.galapea.techblog.jobboardgriddbcloud.model.UserDTO;
 import com.galapea.techblog.jobboardgriddbcloud.model.UserRole;
 import com.galapea.techblog.jobboardgriddbcloud.model.WorkModel;
 
+/**
+ * Seed data: the demo companies, the administrator and applicant accounts and the skill catalog
+ * from {@code skills.json}, written by {@link SchemaBootstrap}, plus demo jobs on request. Every
+ * seed uses fixed ids or checks for existing rows, so seeding again does not duplicate rows.
+ */
 @Component
-public class TableSeeder implements CommandLineRunner {
+public class TableSeeder {
 
     private static final String COM_XYZ = "com_xyz";
     public static final String DUMMY_USER1_FULLNAME = "John Doe";
@@ -29,30 +34,19 @@ public class TableSeeder implements CommandLineRunner {
     private final CompanyGridDbService companyService;
     private final SkillTagGridDbService skillTagService;
     private final JobPostGridDbService jobPostService;
-    private final JobPostSkillGridDbService jobPostSkillService;
 
     public TableSeeder(
             final UserGridDbService userService,
             final CompanyGridDbService companyService,
             final SkillTagGridDbService skillTagService,
-            final JobPostGridDbService jobPostService,
-            final JobPostSkillGridDbService jobPostSkillService) {
+            final JobPostGridDbService jobPostService) {
         this.userService = userService;
         this.companyService = companyService;
         this.skillTagService = skillTagService;
         this.jobPostService = jobPostService;
-        this.jobPostSkillService = jobPostSkillService;
     }
 
-    @Override
-    public void run(final String... args) throws IOException {
-        // Create tables for all entities in a dependency-safe order
-        companyService.createTable();
-        userService.createTable();
-        skillTagService.createTable();
-        jobPostService.createTable();
-        jobPostSkillService.createTable();
-
+    public void seedCompanies() {
         CompanyDTO company = new CompanyDTO();
         company.setId("com_0mrcfv5xnafc5");
         company.setName("Default Company");
@@ -70,7 +64,9 @@ public class TableSeeder implements CommandLineRunner {
                 "The XYZ Company is a fictional company used for demonstration purposes.");
         theXyzCompany.setWebsiteUrl("www.xyz.com");
         companyService.createAll(List.of(company, sisterCompany, theXyzCompany));
+    }
 
+    public void seedUsers() {
         UserDTO admin = new UserDTO();
         admin.setEmail("admin@jb.com");
         admin.setFullName("JB Administrator");
@@ -85,16 +81,18 @@ public class TableSeeder implements CommandLineRunner {
         if (!userService.emailExists(user.getEmail())) {
             userService.create(user);
         }
-        seedSkillTags();
     }
 
-    private void seedSkillTags() throws IOException {
-        ClassPathResource resource = new ClassPathResource("skills.json");
-        Path path = Path.of(resource.getURI());
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<SkillTagDTO> skillTags =
-                List.of(objectMapper.readValue(path.toFile(), SkillTagDTO[].class));
-        skillTagService.createAll(skillTags);
+    public void seedSkillTags() {
+        // read as a stream, the file is not on the file system when packaged in a jar
+        try (InputStream skills = new ClassPathResource("skills.json").getInputStream()) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            List<SkillTagDTO> skillTags =
+                    List.of(objectMapper.readValue(skills, SkillTagDTO[].class));
+            skillTagService.createAll(skillTags);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read skills.json", e);
+        }
     }
 
     public void seedJobs() {
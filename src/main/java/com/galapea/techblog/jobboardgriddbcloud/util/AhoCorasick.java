@@ -0,0 +1,133 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton that finds all occurrences of a fixed set of patterns in a text in one
+ * pass, however many patterns there are.
+ * <p>
+ * Matching is exact and case-sensitive, so patterns and text should be normalized the same way
+ * beforehand (see {@link TextTokenizer#normalize}). Only whole-word occurrences are reported: the
+ * characters before and after a match must not be letters or digits, so "go" is found in "go, rust"
+ * but not in "google". An instance is immutable and can be shared between threads.
+ * </p>
+ *
+ * @param <V>
+ *            value reported for a pattern, e.g. the id of a skill tag
+ */
+public final class AhoCorasick<V> {
+    private static final int ROOT = 0;
+
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failures = new ArrayList<>();
+    private final List<List<Integer>> outputs = new ArrayList<>();
+    private final List<String> patterns = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+
+    private AhoCorasick(Map<String, V> patternValues) {
+        addState();
+        patternValues.forEach(this::addPattern);
+        linkFailures();
+    }
+
+    /**
+     * @param patternValues
+     *            the value to report for each pattern; empty patterns are ignored
+     */
+    public static <V> AhoCorasick<V> of(Map<String, V> patternValues) {
+        return new AhoCorasick<>(patternValues);
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    /** Returns every whole-word occurrence of a pattern in {@code text}, in order of its end. */
+    public List<Match<V>> findAll(String text) {
+        List<Match<V>> matches = new ArrayList<>();
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Integer next;
+            while ((next = transitions.get(state).get(c)) == null && state != ROOT) {
+                state = failures.get(state);
+            }
+            state = next == null ? ROOT : next;
+            for (int pattern : outputs.get(state)) {
+                int start = i + 1 - patterns.get(pattern).length();
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    matches.add(new Match<>(start, i + 1, values.get(pattern)));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        return index < 0
+                || index >= text.length()
+                || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private int addState() {
+        transitions.add(new HashMap<>(4));
+        failures.add(ROOT);
+        outputs.add(new ArrayList<>(1));
+        return transitions.size() - 1;
+    }
+
+    private void addPattern(String pattern, V value) {
+        if (pattern == null || pattern.isEmpty()) {
+            return;
+        }
+        int state = ROOT;
+        for (int i = 0; i < pattern.length(); i++) {
+            Integer next = transitions.get(state).get(pattern.charAt(i));
+            state = next != null ? next : link(state, pattern.charAt(i));
+        }
+        outputs.get(state).add(patterns.size());
+        patterns.add(pattern);
+        values.add(value);
+    }
+
+    private int link(int state, char c) {
+        int next = addState();
+        transitions.get(state).put(c, next);
+        return next;
+    }
+
+    // breadth-first, so the failure state of a parent is final before its children are linked
+    private void linkFailures() {
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(ROOT).values());
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                int child = transition.getValue();
+                int fallback = failures.get(state);
+                Integer target;
+                while ((target = transitions.get(fallback).get(transition.getKey())) == null
+                        && fallback != ROOT) {
+                    fallback = failures.get(fallback);
+                }
+                failures.set(child, target == null || target == child ? ROOT : target);
+                outputs.get(child).addAll(outputs.get(failures.get(child)));
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * An occurrence of a pattern.
+     *
+     * @param start
+     *            index of the first character in the text
+     * @param end
+     *            index after the last character in the text
+     */
+    public record Match<V>(int start, int end, V value) {}
+}
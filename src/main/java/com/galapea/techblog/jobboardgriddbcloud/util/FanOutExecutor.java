@@ -0,0 +1,142 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs independent blocking calls concurrently on virtual threads.
+ * <p>
+ * Calls are grouped in a {@link Scope}, which behaves like a {@code ShutdownOnFailure} structured
+ * task scope: all forks share one deadline, the first failure cancels the remaining forks, and
+ * closing the scope cancels anything still running.
+ * </p>
+ *
+ * <pre>{@code
+ * try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+ *     Supplier<JobPostDTO> job = scope.fork(() -> jobPostService.get(id));
+ *     Supplier<List<JobPostSkillDTO>> skills = scope.fork(() -> jobPostSkillService.findByJobPostId(id));
+ *     scope.join();
+ *     ...
+ * }
+ * }</pre>
+ */
+@Component
+public class FanOutExecutor {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory());
+    private final Duration timeout;
+
+    public FanOutExecutor(@Value("${jobboard.fan-out.timeout:10s}") final Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + timeout.toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public class Scope implements AutoCloseable {
+        private final long deadlineNanos;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Scope(final long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Starts the task on a new virtual thread. The returned supplier may only be read after
+         * {@link #join()} returned normally.
+         */
+        public <T> Supplier<T> fork(final Callable<T> task) {
+            Future<T> future =
+                    executor.submit(
+                            () -> {
+                                try {
+                                    return task.call();
+                                } catch (Throwable e) {
+                                    if (failure.compareAndSet(null, e)) {
+                                        cancelAll();
+                                    }
+                                    throw e;
+                                }
+                            });
+            synchronized (futures) {
+                futures.add(future);
+            }
+            if (failure.get() != null) {
+                future.cancel(true);
+            }
+            return future::resultNow;
+        }
+
+        /**
+         * Waits for all forks to complete. If any fork fails, the others are cancelled and the
+         * first failure is rethrown; if the deadline passes first, all forks are cancelled and
+         * {@link FanOutTimeoutException} is thrown.
+         */
+        public void join() {
+            List<Future<?>> snapshot;
+            synchronized (futures) {
+                snapshot = List.copyOf(futures);
+            }
+            try {
+                for (Future<?> future : snapshot) {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new FanOutTimeoutException("Concurrent calls did not finish in " + timeout);
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for concurrent calls");
+            } catch (ExecutionException | CancellationException e) {
+                // fall through and report the first failure, not the cancellation it caused
+            }
+            Throwable cause = failure.get();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause != null) {
+                throw new IllegalStateException(cause.getMessage(), cause);
+            }
+        }
+
+        private void cancelAll() {
+            synchronized (futures) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+}
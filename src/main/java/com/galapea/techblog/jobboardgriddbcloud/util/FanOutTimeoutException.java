@@ -0,0 +1,16 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class FanOutTimeoutException extends RuntimeException {
+
+    public FanOutTimeoutException() {
+        super();
+    }
+
+    public FanOutTimeoutException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spaces out calls to at most {@code permitsPerSecond}, evenly and without bursts. Each
+ * {@link #acquire()} reserves the next free slot and sleeps until it comes.
+ */
+public final class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    /** Blocks until the caller may proceed. */
+    public void acquire() throws InterruptedException {
+        long slot = reserve();
+        for (long waitNanos = slot - System.nanoTime();
+                waitNanos > 0;
+                waitNanos = slot - System.nanoTime()) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(nextFreeNanos, now);
+        nextFreeNanos = slot + intervalNanos;
+        return slot;
+    }
+}
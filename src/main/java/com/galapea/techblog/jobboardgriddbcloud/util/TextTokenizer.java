@@ -0,0 +1,73 @@
+package com.galapea.techblog.jobboardgriddbcloud.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits free text into lower-case search terms.
+ * <p>
+ * Accents are removed ("Zürich" becomes "zurich"), and terms are runs of letters and digits.
+ * {@code +} and {@code #} are kept inside a term so that "C++" and "C#" stay searchable. Common
+ * English stop words and single characters other than digits and "c"/"r" are dropped.
+ * </p>
+ */
+public final class TextTokenizer {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+    private static final Set<String> STOP_WORDS =
+            Set.of(
+                    "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+                    "it", "of", "on", "or", "our", "that", "the", "to", "we", "will", "with", "you",
+                    "your");
+
+    private TextTokenizer() {}
+
+    /** Returns the terms of {@code text} in order, including repeats. */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            String term = trimOperators(token);
+            if (isTerm(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /** Lower-cases {@code text} and strips accents, without splitting it. */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // "+" and "#" belong to a term only after letters or digits, as in "c++" or "f#"
+    private static String trimOperators(String token) {
+        int start = 0;
+        while (start < token.length() && isOperator(token.charAt(start))) {
+            start++;
+        }
+        return token.substring(start);
+    }
+
+    private static boolean isOperator(char c) {
+        return c == '+' || c == '#';
+    }
+
+    private static boolean isTerm(String term) {
+        if (term.isEmpty() || STOP_WORDS.contains(term)) {
+            return false;
+        }
+        if (term.length() == 1) {
+            char c = term.charAt(0);
+            return Character.isDigit(c) || c == 'c' || c == 'r';
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.lang.reflect.Modifier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * Wraps every {@link MeteredContainer} bean in a class proxy that times its public methods and
+ * makes each one the {@linkplain GridDbOperation#current() current operation} while it runs.
+ * <p>
+ * Containers only need the annotation; their methods stay free of instrumentation code. Calls a
+ * container makes to its own methods are not proxied and count towards the outer operation.
+ * </p>
+ */
+class ContainerMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<GridDbCloudMetrics> metrics;
+
+    ContainerMetricsPostProcessor(ObjectProvider<GridDbCloudMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        MeteredContainer annotation =
+                AnnotationUtils.findAnnotation(bean.getClass(), MeteredContainer.class);
+        if (annotation == null) {
+            return bean;
+        }
+        String container = annotation.value();
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(
+                (MethodInterceptor)
+                        invocation -> {
+                            if (!Modifier.isPublic(invocation.getMethod().getModifiers())
+                                    || invocation.getMethod().getDeclaringClass() == Object.class) {
+                                return invocation.proceed();
+                            }
+                            GridDbOperation operation =
+                                    new GridDbOperation(
+                                            container, invocation.getMethod().getName());
+                            long begin = System.nanoTime();
+                            boolean success = false;
+                            try (GridDbOperation.Scope scope = operation.open()) {
+                                Object result = invocation.proceed();
+                                success = true;
+                                return result;
+                            } finally {
+                                metrics.getObject()
+                                        .recordOperation(
+                                                operation, success, System.nanoTime() - begin);
+                            }
+                        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+}
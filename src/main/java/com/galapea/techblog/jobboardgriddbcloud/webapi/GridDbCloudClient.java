@@ -1,17 +1,27 @@
 package com.galapea.techblog.jobboardgriddbcloud.webapi;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestClient;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsRequest;
 import com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition.AcquireRowsResponse;
 
@@ -19,10 +29,38 @@ public class GridDbCloudClient {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final RestClient restClient;
+    // generators must not close the request stream, the HTTP client finishes the body itself
+    private final JsonFactory jsonFactory =
+            JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+    private final RowStreamReader rowStreamReader;
+    private final SingleFlight singleFlight = new SingleFlight();
+    // bumped after every write, so a read issued after a write never joins one issued before it
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final GridDbCloudMetrics metrics;
 
-    public GridDbCloudClient(String baseUrl, String authToken) {
+    public GridDbCloudClient(
+            String baseUrl, String authToken, ClientHttpRequestFactory requestFactory) {
+        this(
+                baseUrl,
+                authToken,
+                requestFactory,
+                new GridDbCloudMetrics(null),
+                new GridDbCloudClientProperties.Logging());
+    }
+
+    public GridDbCloudClient(
+            String baseUrl,
+            String authToken,
+            ClientHttpRequestFactory requestFactory,
+            GridDbCloudMetrics metrics,
+            GridDbCloudClientProperties.Logging logging) {
+        this.metrics = metrics;
+        this.rowStreamReader = new RowStreamReader(jsonFactory, metrics);
         this.restClient =
                 RestClient.builder()
+                        .requestFactory(
+                                new InstrumentedClientHttpRequestFactory(
+                                        requestFactory, metrics, logging))
                         .baseUrl(baseUrl)
                         .defaultHeader("Authorization", "Basic " + authToken)
                         .defaultHeader("Content-Type", "application/json")
@@ -30,49 +68,21 @@ public class GridDbCloudClient {
                         .defaultStatusHandler(
                                 HttpStatusCode::isError,
                                 (request, response) -> {
-                                    log.error(
-                                            "GridDBCloud API Error HTTP status text: {}",
-                                            response.getStatusText());
-                                    // String errorBody = new
-                                    // String(response.getBody().readAllBytes());
-                                    String errorBody =
-                                            StreamUtils.copyToString(
-                                                    response.getBody(), StandardCharsets.UTF_8);
-                                    String message =
-                                            String.format(
-                                                    "%s - %s",
-                                                    response.getStatusCode().value(), errorBody);
-                                    log.error("GridDBCloud API Error: {}", message);
-                                    throw new GridDbException(
-                                            "GridDBCloud API request failed",
-                                            response.getStatusCode(),
-                                            errorBody);
-                                })
-                        .requestInterceptor(
-                                (request, body, execution) -> {
-                                    final long begin = System.currentTimeMillis();
-                                    ClientHttpResponse response = execution.execute(request, body);
-                                    long duration = System.currentTimeMillis() - begin;
-                                    log.info(
-                                            "[HttpRequestInterceptor] {} {} {} Duration: {}s",
-                                            response.getStatusCode().value(),
-                                            request.getMethod(),
-                                            request.getURI(),
-                                            TimeUnit.MILLISECONDS.toSeconds(duration));
-                                    log.info(
-                                            "[HttpRequestInterceptor] Headers: {}",
-                                            request.getHeaders());
-                                    if (body != null && body.length > 0) {
-                                        log.info(
-                                                "[HttpRequestInterceptor] Body: {}",
-                                                new String(body, StandardCharsets.UTF_8));
-                                    }
-                                    return response;
+                                    throw toGridDbException(response);
                                 })
                         .build();
         checkConnection();
     }
 
+    private GridDbException toGridDbException(ClientHttpResponse response) throws IOException {
+        log.error("GridDBCloud API Error HTTP status text: {}", response.getStatusText());
+        String errorBody = StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+        String message = String.format("%s - %s", response.getStatusCode().value(), errorBody);
+        log.error("GridDBCloud API Error: {}", message);
+        return new GridDbException(
+                "GridDBCloud API request failed", response.getStatusCode(), errorBody);
+    }
+
     private void checkConnection() {
         try {
             log.info("Checking connection to GridDBCloud...");
@@ -103,6 +113,8 @@ public class GridDbCloudClient {
         } catch (Exception e) {
             throw new GridDbException(
                     "Failed to create container", HttpStatusCode.valueOf(500), e.getMessage(), e);
+        } finally {
+            writeGeneration.incrementAndGet();
         }
     }
 
@@ -117,6 +129,8 @@ public class GridDbCloudClient {
                     HttpStatusCode.valueOf(500),
                     e.getMessage(),
                     e);
+        } finally {
+            writeGeneration.incrementAndGet();
         }
     }
 
@@ -128,22 +142,32 @@ public class GridDbCloudClient {
      *
      * @param containerName
      *            The name of the container where rows will be registered
-     * @param body
-     *            The data to be registered in the container
+     * @param rows
+     *            The rows to be registered in the container. They are written to the
+     *            request body with a {@link JsonGenerator} while the request is sent,
+     *            so the payload is never held in memory as a whole.
      * @throws GridDbException
      *             If there's an error during the registration process with GridDB
      *             or if the REST request fails
      */
-    public void registerRows(String containerName, Object body) {
+    public void registerRows(String containerName, RowSource rows) {
         try {
             ResponseEntity<String> result =
                     restClient
                             .put()
                             .uri("/containers/" + containerName + "/rows")
-                            .body(body)
+                            .body(
+                                    outputStream -> {
+                                        try (JsonGenerator generator =
+                                                jsonFactory.createGenerator(outputStream)) {
+                                            generator.writeStartArray();
+                                            rows.writeRows(generator);
+                                            generator.writeEndArray();
+                                        }
+                                    })
                             .retrieve()
                             .toEntity(String.class);
-            log.info("Register row response:{}", result);
+            log.debug("Register row response:{}", result);
         } catch (GridDbException e) {
             throw e;
         } catch (Exception e) {
@@ -152,6 +176,8 @@ public class GridDbCloudClient {
                     HttpStatusCode.valueOf(500),
                     e.getMessage(),
                     e);
+        } finally {
+            writeGeneration.incrementAndGet();
         }
     }
 
@@ -200,16 +226,154 @@ public class GridDbCloudClient {
         }
     }
 
+    /**
+     * Streaming variant of {@link #acquireRows(String, AcquireRowsRequest)}. Each row is decoded
+     * with {@code decoder} and passed to {@code rowHandler} while the response is read, so no
+     * intermediate {@link AcquireRowsResponse} is built.
+     * <p>
+     * Concurrent calls with the same container, request and decoder share one HTTP call. Only
+     * calls that join before the response arrives share it; the rows are then buffered once and
+     * handed to the {@code rowHandler} of every caller. A call that nobody joined streams its rows.
+     * </p>
+     *
+     * @return the total number of rows matching the request condition
+     * @throws GridDbException
+     *             if the request fails or the GridDB API returns an error
+     */
+    public <T> long acquireRows(
+            String containerName,
+            AcquireRowsRequest requestBody,
+            RowDecoder<T> decoder,
+            Consumer<? super T> rowHandler) {
+        GridDbOperation operation = new GridDbOperation(containerName, "acquireRows");
+        AcquireRowsKey key =
+                new AcquireRowsKey(containerName, requestBody, decoder, writeGeneration.get());
+        return singleFlight.<DecodedRows<T>, Long>execute(
+                key,
+                flight -> {
+                    metrics.recordRead(operation, false);
+                    return fetchRows(
+                            containerName, requestBody, decoder, rowHandler, operation, flight);
+                },
+                shared -> {
+                    metrics.recordRead(operation, true);
+                    metrics.recordRows(operation, shared.rows().size());
+                    shared.rows().forEach(rowHandler);
+                    return shared.total();
+                });
+    }
+
+    private <T> long fetchRows(
+            String containerName,
+            AcquireRowsRequest requestBody,
+            RowDecoder<T> decoder,
+            Consumer<? super T> rowHandler,
+            GridDbOperation operation,
+            SingleFlight.Flight<DecodedRows<T>> flight) {
+        try {
+            return restClient
+                    .post()
+                    .uri("/containers/" + containerName + "/rows")
+                    .body(requestBody)
+                    .exchange(
+                            (request, response) -> {
+                                if (response.getStatusCode().isError()) {
+                                    throw toGridDbException(response);
+                                }
+                                if (!flight.share()) {
+                                    AtomicLong rows = new AtomicLong();
+                                    long total =
+                                            rowStreamReader.readAcquireRows(
+                                                    response.getBody(),
+                                                    decoder,
+                                                    row -> {
+                                                        rows.incrementAndGet();
+                                                        rowHandler.accept(row);
+                                                    });
+                                    metrics.recordRows(operation, rows.get());
+                                    return total;
+                                }
+                                List<T> rows = new ArrayList<>();
+                                long total =
+                                        rowStreamReader.readAcquireRows(
+                                                response.getBody(), decoder, rows::add);
+                                flight.complete(new DecodedRows<>(rows, total));
+                                metrics.recordRows(operation, rows.size());
+                                rows.forEach(rowHandler);
+                                return total;
+                            });
+        } catch (GridDbException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GridDbException(
+                    "Failed to execute GET request",
+                    HttpStatusCode.valueOf(500),
+                    e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Reads every row of a container whose row key is the string column {@code id}, in pages of
+     * {@code pageSize} rows ordered by id. Each page continues after the last id of the previous
+     * one, so the cost per page does not grow with the size of the container.
+     *
+     * @return the number of rows read
+     * @throws GridDbException
+     *             if a request fails or the GridDB API returns an error
+     */
+    public <T> long scanRows(
+            String containerName,
+            int pageSize,
+            RowDecoder<T> decoder,
+            Function<? super T, String> idOf,
+            Consumer<? super T> rowHandler) {
+        return scanRows(containerName, null, pageSize, decoder, idOf, rowHandler);
+    }
+
+    /**
+     * Like {@link #scanRows(String, int, RowDecoder, Function, Consumer)}, reading only the rows
+     * matching the TQL {@code condition}, or every row when it is {@code null}.
+     */
+    public <T> long scanRows(
+            String containerName,
+            String condition,
+            int pageSize,
+            RowDecoder<T> decoder,
+            Function<? super T, String> idOf,
+            Consumer<? super T> rowHandler) {
+        long count = 0;
+        String lastId = null;
+        while (true) {
+            AcquireRowsRequest.Builder requestBody =
+                    AcquireRowsRequest.builder().limit((long) pageSize).sort("id ASC");
+            String after = lastId == null ? null : "id > '" + lastId.replace("'", "''") + "'";
+            if (condition != null && after != null) {
+                requestBody.condition("(" + condition + ") AND " + after);
+            } else if (condition != null || after != null) {
+                requestBody.condition(condition != null ? condition : after);
+            }
+            List<T> page = new ArrayList<>(pageSize);
+            acquireRows(containerName, requestBody.build(), decoder, page::add);
+            page.forEach(rowHandler);
+            count += page.size();
+            if (page.size() < pageSize) {
+                return count;
+            }
+            lastId = idOf.apply(page.get(page.size() - 1));
+        }
+    }
+
     public ContainerUpdateResult[] registerRowsMultipleContainers(Object body) {
+        return registerRowsMultipleContainers(restClient.put().uri("/containers/rows").body(body));
+    }
+
+    private ContainerUpdateResult[] registerRowsMultipleContainers(
+            RestClient.RequestBodySpec request) {
         try {
             ResponseEntity<ContainerUpdateResult[]> result =
-                    restClient
-                            .put()
-                            .uri("/containers/rows")
-                            .body(body)
-                            .retrieve()
-                            .toEntity(ContainerUpdateResult[].class);
-            log.info(
+                    request.retrieve().toEntity(ContainerUpdateResult[].class);
+            log.debug(
                     "Registers rows in multiple containers response: {}",
                     (Object) result.getBody());
             return result.getBody();
@@ -221,9 +385,44 @@ public class GridDbCloudClient {
                     HttpStatusCode.valueOf(500),
                     e.getMessage(),
                     e);
+        } finally {
+            writeGeneration.incrementAndGet();
         }
     }
 
+    /**
+     * Registers rows in several containers with a single request. The body is streamed like in
+     * {@link #registerRows(String, RowSource)}. For more details, refer to the <a href=
+     * "https://www.toshiba-sol.co.jp/en/pro/griddb/docs-en/v5_7/GridDB_Web_API_Reference.html#row-registration-in-multiple-containers">GridDB
+     * Web API Reference</a>
+     *
+     * @param rowsByContainer
+     *            rows to register, keyed by container name, in the order they should be
+     *            written
+     * @return the number of rows updated in each container
+     * @throws GridDbException
+     *             if the request fails or the GridDB API returns an error
+     */
+    public ContainerUpdateResult[] registerRowsMultipleContainers(
+            Map<String, RowSource> rowsByContainer) {
+        StreamingHttpOutputMessage.Body body =
+                outputStream -> {
+                    try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+                        generator.writeStartArray();
+                        for (Map.Entry<String, RowSource> entry : rowsByContainer.entrySet()) {
+                            generator.writeStartObject();
+                            generator.writeStringField("containerName", entry.getKey());
+                            generator.writeArrayFieldStart("rows");
+                            entry.getValue().writeRows(generator);
+                            generator.writeEndArray();
+                            generator.writeEndObject();
+                        }
+                        generator.writeEndArray();
+                    }
+                };
+        return registerRowsMultipleContainers(restClient.put().uri("/containers/rows").body(body));
+    }
+
     public SQLSelectResponse[] select(List<GridDbCloudSQLStmt> sqlStmts) {
         try {
             ResponseEntity<SQLSelectResponse[]> responseEntity =
@@ -245,6 +444,118 @@ public class GridDbCloudClient {
         }
     }
 
+    /**
+     * Streaming variant of {@link #select(List)}. All statements are sent in one request, and the
+     * rows of the n-th result set are decoded and delivered by the n-th handler while the response
+     * is read. Concurrent calls with the same statements and decoders share one HTTP call, like in
+     * {@link #acquireRows(String, AcquireRowsRequest, RowDecoder, Consumer)}.
+     *
+     * @throws GridDbException
+     *             if the request fails or the GridDB API returns an error
+     */
+    public void select(SQLSelectHandler<?>... handlers) {
+        GridDbOperation operation = new GridDbOperation(GridDbCloudMetrics.NONE, "sqlQuery");
+        List<SQLSelectHandler<?>> handlerList = List.of(handlers);
+        List<GridDbCloudSQLStmt> sqlStmts =
+                handlerList.stream().map(SQLSelectHandler::statement).toList();
+        List<RowDecoder<?>> decoders =
+                handlerList.stream().<RowDecoder<?>>map(SQLSelectHandler::decoder).toList();
+        SelectKey key = new SelectKey(sqlStmts, decoders, writeGeneration.get());
+        singleFlight.<List<List<Object>>, Void>execute(
+                key,
+                flight -> {
+                    metrics.recordRead(operation, false);
+                    fetchResultSets(sqlStmts, handlerList, operation, flight);
+                    return null;
+                },
+                resultSets -> {
+                    metrics.recordRead(operation, true);
+                    deliver(handlerList, resultSets, operation);
+                    return null;
+                });
+    }
+
+    private void deliver(
+            List<SQLSelectHandler<?>> handlers,
+            List<List<Object>> resultSets,
+            GridDbOperation operation) {
+        metrics.recordRows(operation, resultSets.stream().mapToLong(List::size).sum());
+        for (int i = 0; i < handlers.size(); i++) {
+            deliver(handlers.get(i), resultSets.get(i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void deliver(SQLSelectHandler<T> handler, List<Object> rows) {
+        for (Object row : rows) {
+            handler.rowHandler().accept((T) row);
+        }
+    }
+
+    private static <T> SQLSelectHandler<T> counting(SQLSelectHandler<T> handler, AtomicLong rows) {
+        return new SQLSelectHandler<>(
+                handler.statement(),
+                handler.decoder(),
+                row -> {
+                    rows.incrementAndGet();
+                    handler.rowHandler().accept(row);
+                });
+    }
+
+    private void fetchResultSets(
+            List<GridDbCloudSQLStmt> sqlStmts,
+            List<SQLSelectHandler<?>> handlers,
+            GridDbOperation operation,
+            SingleFlight.Flight<List<List<Object>>> flight) {
+        try {
+            restClient
+                    .post()
+                    .uri("/sql/dml/query")
+                    .body(sqlStmts)
+                    .exchange(
+                            (request, response) -> {
+                                if (response.getStatusCode().isError()) {
+                                    throw toGridDbException(response);
+                                }
+                                if (!flight.share()) {
+                                    AtomicLong rows = new AtomicLong();
+                                    rowStreamReader.readSelectResults(
+                                            response.getBody(),
+                                            handlers.stream()
+                                                    .map(handler -> counting(handler, rows))
+                                                    .toList());
+                                    metrics.recordRows(operation, rows.get());
+                                    return null;
+                                }
+                                List<List<Object>> resultSets = new ArrayList<>(handlers.size());
+                                List<SQLSelectHandler<?>> buffers =
+                                        new ArrayList<>(handlers.size());
+                                for (SQLSelectHandler<?> handler : handlers) {
+                                    List<Object> rows = new ArrayList<>();
+                                    resultSets.add(rows);
+                                    @SuppressWarnings("unchecked")
+                                    RowDecoder<Object> decoder =
+                                            (RowDecoder<Object>) handler.decoder();
+                                    buffers.add(
+                                            new SQLSelectHandler<>(
+                                                    handler.statement(), decoder, rows::add));
+                                }
+                                rowStreamReader.readSelectResults(response.getBody(), buffers);
+                                flight.complete(resultSets);
+                                deliver(handlers, resultSets, operation);
+                                return null;
+                            });
+        } catch (GridDbException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GridDbException(
+                    "Failed to execute /sql/dml/query",
+                    HttpStatusCode.valueOf(500),
+                    e.getMessage(),
+                    e);
+        }
+    }
+
     public SQLUpdateResponse[] update(List<GridDbCloudSQLStmt> sqlStmts) {
         try {
             ResponseEntity<SQLUpdateResponse[]> responseEntity =
@@ -263,6 +574,21 @@ public class GridDbCloudClient {
                     HttpStatusCode.valueOf(500),
                     e.getMessage(),
                     e);
+        } finally {
+            writeGeneration.incrementAndGet();
         }
     }
+
+    private record DecodedRows<T>(List<T> rows, long total) {}
+
+    private record AcquireRowsKey(
+            String containerName,
+            AcquireRowsRequest request,
+            RowDecoder<?> decoder,
+            long writeGeneration) {}
+
+    private record SelectKey(
+            List<GridDbCloudSQLStmt> statements,
+            List<RowDecoder<?>> decoders,
+            long writeGeneration) {}
 }
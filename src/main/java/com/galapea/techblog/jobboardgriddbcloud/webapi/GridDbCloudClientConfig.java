@@ -1,13 +1,63 @@
 package com.galapea.techblog.jobboardgriddbcloud.webapi;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.galapea.techblog.jobboardgriddbcloud.webapi.embedded.EmbeddedGridDbServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class GridDbCloudClientConfig {
 
     @Bean
-    public GridDbCloudClient gridDbCloudClient(GridDbCloudClientProperties properties) {
-        return new GridDbCloudClient(properties.getBaseUrl(), properties.getAuthToken());
+    public GridDbCloudHttpTransport gridDbCloudHttpTransport(
+            GridDbCloudClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return GridDbCloudHttpTransport.create(
+                properties.getTransport(), meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public GridDbCloudMetrics gridDbCloudMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GridDbCloudMetrics(meterRegistry.getIfAvailable());
+    }
+
+    // static, so that post-processing does not initialize this configuration early
+    @Bean
+    static ContainerMetricsPostProcessor containerMetricsPostProcessor(
+            ObjectProvider<GridDbCloudMetrics> metrics) {
+        return new ContainerMetricsPostProcessor(metrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "griddbcloud.embedded", name = "enabled", havingValue = "true")
+    public EmbeddedGridDbServer embeddedGridDbServer(GridDbCloudClientProperties properties) {
+        return EmbeddedGridDbServer.start(properties.getEmbedded());
+    }
+
+    @Bean
+    public GridDbCloudClient gridDbCloudClient(
+            GridDbCloudClientProperties properties,
+            GridDbCloudHttpTransport transport,
+            GridDbCloudMetrics metrics,
+            ObjectProvider<EmbeddedGridDbServer> embeddedServer) {
+        EmbeddedGridDbServer embedded = embeddedServer.getIfAvailable();
+        return new GridDbCloudClient(
+                embedded != null ? embedded.getBaseUrl() : properties.getBaseUrl(),
+                properties.getAuthToken(),
+                transport.getRequestFactory(),
+                metrics,
+                properties.getLogging());
+    }
+
+    @Bean
+    public RowWriteBuffer rowWriteBuffer(
+            GridDbCloudClientProperties properties,
+            GridDbCloudClient gridDbCloudClient,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RowWriteBuffer(
+                gridDbCloudClient, properties.getWriteBehind(), meterRegistry.getIfAvailable());
     }
 }
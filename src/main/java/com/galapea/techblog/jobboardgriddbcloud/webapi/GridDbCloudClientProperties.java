@@ -1,5 +1,7 @@
 package com.galapea.techblog.jobboardgriddbcloud.webapi;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -8,6 +10,10 @@ import org.springframework.stereotype.Component;
 public class GridDbCloudClientProperties {
     private String baseUrl;
     private String authToken;
+    private final Transport transport = new Transport();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final Logging logging = new Logging();
+    private final Embedded embedded = new Embedded();
 
     public String getBaseUrl() {
         return this.baseUrl;
@@ -24,4 +30,266 @@ public class GridDbCloudClientProperties {
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
     }
+
+    public Transport getTransport() {
+        return this.transport;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return this.writeBehind;
+    }
+
+    public Logging getLogging() {
+        return this.logging;
+    }
+
+    public Embedded getEmbedded() {
+        return this.embedded;
+    }
+
+    /**
+     * Settings of the HTTP transport used to reach the GridDB Web API.
+     */
+    public static class Transport {
+        /**
+         * {@code HTTP_1_1} uses a pooled Apache HttpClient with keep-alive; {@code HTTP_2} uses
+         * the JDK HttpClient, which multiplexes all requests over one connection per host.
+         */
+        private Protocol protocol = Protocol.HTTP_1_1;
+
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /** Maximum number of pooled connections (HTTP/1.1 only). */
+        private int maxConnections = 50;
+
+        /** Pooled connections idle for longer than this are closed (HTTP/1.1 only). */
+        private Duration idleEvictionTimeout = Duration.ofSeconds(30);
+
+        /** Connections older than this are not reused (HTTP/1.1 only). */
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+
+        public Protocol getProtocol() {
+            return this.protocol;
+        }
+
+        public void setProtocol(Protocol protocol) {
+            this.protocol = protocol;
+        }
+
+        public Duration getConnectTimeout() {
+            return this.connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return this.readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConnections() {
+            return this.maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getIdleEvictionTimeout() {
+            return this.idleEvictionTimeout;
+        }
+
+        public void setIdleEvictionTimeout(Duration idleEvictionTimeout) {
+            this.idleEvictionTimeout = idleEvictionTimeout;
+        }
+
+        public Duration getConnectionTimeToLive() {
+            return this.connectionTimeToLive;
+        }
+
+        public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+        }
+    }
+
+    /**
+     * Settings of the {@link RowWriteBuffer} that batches {@code registerRows} calls.
+     */
+    public static class WriteBehind {
+        /** When disabled, every registerRows call is sent immediately. */
+        private boolean enabled = false;
+
+        /** A container's buffer is flushed as soon as it holds this many rows. */
+        private int batchSize = 100;
+
+        /** Longest time a row waits in the buffer before it is flushed. */
+        private Duration maxDelay = Duration.ofMillis(50);
+
+        /** Writers block once this many rows are buffered or in flight across all containers. */
+        private int maxPendingRows = 10_000;
+
+        /** How long shutdown waits for buffered rows to be written. */
+        private Duration drainTimeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return this.batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return this.maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getMaxPendingRows() {
+            return this.maxPendingRows;
+        }
+
+        public void setMaxPendingRows(int maxPendingRows) {
+            this.maxPendingRows = maxPendingRows;
+        }
+
+        public Duration getDrainTimeout() {
+            return this.drainTimeout;
+        }
+
+        public void setDrainTimeout(Duration drainTimeout) {
+            this.drainTimeout = drainTimeout;
+        }
+    }
+
+    /**
+     * Logging of Web API request and response bodies.
+     */
+    public static class Logging {
+        /** Share of calls, from 0 to 1, whose bodies are logged at INFO; 0 logs none. */
+        private double bodySampleRate = 0;
+
+        /** Logged bodies are cut after this many bytes. */
+        private int maxBodyLength = 2048;
+
+        public double getBodySampleRate() {
+            return this.bodySampleRate;
+        }
+
+        public void setBodySampleRate(double bodySampleRate) {
+            this.bodySampleRate = bodySampleRate;
+        }
+
+        public int getMaxBodyLength() {
+            return this.maxBodyLength;
+        }
+
+        public void setMaxBodyLength(int maxBodyLength) {
+            this.maxBodyLength = maxBodyLength;
+        }
+    }
+
+    /**
+     * Settings of the {@link com.galapea.techblog.jobboardgriddbcloud.webapi.embedded.EmbeddedGridDbServer}
+     * that stands in for GridDB Cloud in load tests and offline development.
+     */
+    public static class Embedded {
+        /** When enabled, the client talks to the embedded server instead of {@code base-url}. */
+        private boolean enabled = false;
+
+        /** Port of the embedded server; 0 picks a free port. */
+        private int port = 0;
+
+        /** H2 database holding the containers. */
+        private String jdbcUrl = "jdbc:h2:mem:griddb;DB_CLOSE_DELAY=-1";
+
+        /** Delay added to every request. */
+        private Duration latency = Duration.ZERO;
+
+        /** Random extra delay, up to this much, added on top of {@code latency}. */
+        private Duration latencyJitter = Duration.ZERO;
+
+        /** Share of requests, from 0 to 1, answered with {@code error-status} instead. */
+        private double errorRate = 0;
+
+        /** HTTP status of injected errors. */
+        private int errorStatus = 503;
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPort() {
+            return this.port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getJdbcUrl() {
+            return this.jdbcUrl;
+        }
+
+        public void setJdbcUrl(String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+
+        public Duration getLatency() {
+            return this.latency;
+        }
+
+        public void setLatency(Duration latency) {
+            this.latency = latency;
+        }
+
+        public Duration getLatencyJitter() {
+            return this.latencyJitter;
+        }
+
+        public void setLatencyJitter(Duration latencyJitter) {
+            this.latencyJitter = latencyJitter;
+        }
+
+        public double getErrorRate() {
+            return this.errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public int getErrorStatus() {
+            return this.errorStatus;
+        }
+
+        public void setErrorStatus(int errorStatus) {
+            this.errorStatus = errorStatus;
+        }
+    }
+
+    public enum Protocol {
+        HTTP_1_1,
+        HTTP_2
+    }
 }
@@ -0,0 +1,131 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * The HTTP transport behind {@link GridDbCloudClient}.
+ * <p>
+ * With {@link GridDbCloudClientProperties.Protocol#HTTP_1_1} requests go through a pooled Apache
+ * HttpClient that keeps connections alive, so a burst of calls does not pay a TLS handshake per
+ * request. Pool gauges and the number of opened and reused connections are published to the
+ * {@link MeterRegistry} when one is available. With {@link GridDbCloudClientProperties.Protocol#HTTP_2}
+ * the JDK HttpClient multiplexes all calls over a single connection.
+ * </p>
+ */
+public class GridDbCloudHttpTransport implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(GridDbCloudHttpTransport.class);
+    private static final String METRIC_PREFIX = "griddbcloud.http";
+
+    private final ClientHttpRequestFactory requestFactory;
+    private final AutoCloseable client;
+
+    private GridDbCloudHttpTransport(
+            ClientHttpRequestFactory requestFactory, AutoCloseable client) {
+        this.requestFactory = requestFactory;
+        this.client = client;
+    }
+
+    public static GridDbCloudHttpTransport create(
+            GridDbCloudClientProperties.Transport settings, MeterRegistry meterRegistry) {
+        log.info(
+                "GridDBCloud transport: protocol={}, maxConnections={}, connectTimeout={}, readTimeout={}",
+                settings.getProtocol(),
+                settings.getMaxConnections(),
+                settings.getConnectTimeout(),
+                settings.getReadTimeout());
+        return switch (settings.getProtocol()) {
+            case HTTP_1_1 -> pooled(settings, meterRegistry);
+            case HTTP_2 -> http2(settings);
+        };
+    }
+
+    private static GridDbCloudHttpTransport pooled(
+            GridDbCloudClientProperties.Transport settings, MeterRegistry meterRegistry) {
+        LongAdder requests = new LongAdder();
+        LongAdder openedConnections = new LongAdder();
+        PoolingHttpClientConnectionManager connectionManager =
+                PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(settings.getMaxConnections())
+                        .setMaxConnPerRoute(settings.getMaxConnections())
+                        .setDefaultConnectionConfig(
+                                ConnectionConfig.custom()
+                                        .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+                                        .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+                                        .setTimeToLive(
+                                                TimeValue.of(settings.getConnectionTimeToLive()))
+                                        .build())
+                        .setConnectionFactory(
+                                socket -> {
+                                    openedConnections.increment();
+                                    return ManagedHttpClientConnectionFactory.INSTANCE
+                                            .createConnection(socket);
+                                })
+                        .build();
+        CloseableHttpClient httpClient =
+                HttpClients.custom()
+                        .setConnectionManager(connectionManager)
+                        .addRequestInterceptorFirst(
+                                (request, entity, context) -> requests.increment())
+                        .evictExpiredConnections()
+                        .evictIdleConnections(TimeValue.of(settings.getIdleEvictionTimeout()))
+                        .build();
+        if (meterRegistry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "griddbcloud")
+                    .bindTo(meterRegistry);
+            FunctionCounter.builder(
+                            METRIC_PREFIX + ".connections.opened",
+                            openedConnections,
+                            LongAdder::doubleValue)
+                    .description("Connections opened to the GridDB Web API")
+                    .register(meterRegistry);
+            FunctionCounter.builder(
+                            METRIC_PREFIX + ".connections.reused",
+                            requests,
+                            r -> Math.max(0, r.doubleValue() - openedConnections.doubleValue()))
+                    .description("Requests served on an already open, pooled connection")
+                    .register(meterRegistry);
+        }
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(httpClient);
+        return new GridDbCloudHttpTransport(requestFactory, httpClient);
+    }
+
+    private static GridDbCloudHttpTransport http2(GridDbCloudClientProperties.Transport settings) {
+        HttpClient httpClient =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(settings.getConnectTimeout())
+                        .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.getReadTimeout());
+        return new GridDbCloudHttpTransport(requestFactory, httpClient);
+    }
+
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public void close() throws Exception {
+        client.close();
+    }
+}
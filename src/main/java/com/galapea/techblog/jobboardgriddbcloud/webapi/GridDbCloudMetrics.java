@@ -0,0 +1,128 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of the GridDB Web API, tagged by {@code container} and {@code operation}.
+ * <ul>
+ * <li>{@code griddbcloud.operation}: duration of a {@link MeteredContainer} method, by
+ * {@code outcome}</li>
+ * <li>{@code griddbcloud.request}: duration of one HTTP request, by {@code method} and
+ * {@code status}, from sending it until its response is closed</li>
+ * <li>{@code griddbcloud.request.sent} and {@code griddbcloud.request.received}: body sizes in
+ * bytes</li>
+ * <li>{@code griddbcloud.rows}: rows decoded from one read</li>
+ * <li>{@code griddbcloud.rows.skipped}: rows dropped because they could not be decoded</li>
+ * <li>{@code griddbcloud.reads}: read calls, by {@code result}: {@code issued} when sent to the
+ * Web API, {@code coalesced} when answered by an identical call already in flight</li>
+ * </ul>
+ * Timers publish percentile histograms, so latency quantiles can be aggregated across instances.
+ * Requests outside any container operation, such as write-behind flushes, are attributed to the
+ * container in their URI and to the Web API call they make ({@code registerRows},
+ * {@code acquireRows}, {@code sqlQuery}, ...). Without a {@link MeterRegistry} nothing is
+ * recorded.
+ */
+public class GridDbCloudMetrics {
+    private static final String METRIC_PREFIX = "griddbcloud";
+    static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public GridDbCloudMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void recordOperation(GridDbOperation operation, boolean success, long durationNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(METRIC_PREFIX + ".operation")
+                .description("Duration of a GridDB container operation")
+                .tags(tags(operation))
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordRequest(
+            GridDbOperation operation,
+            String method,
+            String status,
+            long durationNanos,
+            long sentBytes,
+            long receivedBytes) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Tags tags = tags(operation);
+        Timer.builder(METRIC_PREFIX + ".request")
+                .description("Duration of a GridDB Web API request")
+                .tags(tags)
+                .tag("method", method)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(METRIC_PREFIX + ".request.sent")
+                .description("Request body size of a GridDB Web API request")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(sentBytes);
+        DistributionSummary.builder(METRIC_PREFIX + ".request.received")
+                .description("Response body size of a GridDB Web API request")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(receivedBytes);
+    }
+
+    /** Records a read call, sent to the Web API or answered by one already in flight. */
+    void recordRead(GridDbOperation fallback, boolean coalesced) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Counter.builder(METRIC_PREFIX + ".reads")
+                .description("Read calls to the GridDB Web API")
+                .tags(tags(GridDbOperation.current().orElse(fallback)))
+                .tag("result", coalesced ? "coalesced" : "issued")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /** Records the rows read by the current operation, or by {@code fallback} outside one. */
+    void recordRows(GridDbOperation fallback, long rows) {
+        if (meterRegistry == null) {
+            return;
+        }
+        DistributionSummary.builder(METRIC_PREFIX + ".rows")
+                .description("Rows returned by a GridDB read")
+                .baseUnit("rows")
+                .tags(tags(GridDbOperation.current().orElse(fallback)))
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    /** Records rows of the current operation that were skipped because they failed to decode. */
+    void recordSkippedRows(long rows) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Counter.builder(METRIC_PREFIX + ".rows.skipped")
+                .description("Rows of a GridDB read skipped because they could not be decoded")
+                .tags(tags(GridDbOperation.current().orElse(new GridDbOperation(NONE, "other"))))
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    private static Tags tags(GridDbOperation operation) {
+        return Tags.of("container", operation.container(), "operation", operation.name());
+    }
+}
@@ -0,0 +1,39 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.util.Optional;
+
+/**
+ * The container operation running on the current thread, such as {@code JBJobPost.getOne}. Set by
+ * {@link ContainerMetricsPostProcessor} so that metrics of the Web API requests issued by the
+ * operation can be attributed to it.
+ */
+public record GridDbOperation(String container, String name) {
+    private static final ThreadLocal<GridDbOperation> CURRENT = new ThreadLocal<>();
+
+    public static Optional<GridDbOperation> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /** Makes this the current operation until {@link Scope#close()} restores the previous one. */
+    Scope open() {
+        GridDbOperation previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return container + "." + name;
+    }
+
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,338 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Records the status, duration and body sizes of every GridDB Web API call in
+ * {@link GridDbCloudMetrics}, attributed to the {@linkplain GridDbOperation#current() current
+ * container operation}, and logs a line per call at DEBUG.
+ * <p>
+ * A request is timed from sending it until its response is closed, so streamed reads include the
+ * time to read the rows. Headers are never logged, as they carry the Basic auth token. Bodies are
+ * logged only for a random {@code body-sample-rate} share of calls, truncated to
+ * {@code max-body-length} bytes; the default rate of 0 turns body logging off.
+ * </p>
+ * <p>
+ * This used to be a {@code ClientHttpRequestInterceptor}, but any interceptor makes
+ * {@code RestClient} buffer the complete request body in memory. Decorating the request factory
+ * keeps streaming bodies (see {@link RowSource}) streaming.
+ * </p>
+ */
+class InstrumentedClientHttpRequestFactory implements ClientHttpRequestFactory {
+    private static final Logger log = LoggerFactory.getLogger(GridDbCloudClient.class);
+
+    private final ClientHttpRequestFactory delegate;
+    private final GridDbCloudMetrics metrics;
+    private final GridDbCloudClientProperties.Logging logging;
+
+    InstrumentedClientHttpRequestFactory(
+            ClientHttpRequestFactory delegate,
+            GridDbCloudMetrics metrics,
+            GridDbCloudClientProperties.Logging logging) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.logging = logging;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        GridDbOperation operation =
+                GridDbOperation.current().orElseGet(() -> operationOf(httpMethod, uri));
+        boolean sampled =
+                logging.getBodySampleRate() > 0
+                        && ThreadLocalRandom.current().nextDouble() < logging.getBodySampleRate();
+        return new InstrumentedClientHttpRequest(
+                delegate.createRequest(uri, httpMethod), operation, sampled);
+    }
+
+    /** Names a request made outside any container operation after the Web API call it makes. */
+    static GridDbOperation operationOf(HttpMethod method, URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        if (path.endsWith("/checkConnection")) {
+            return new GridDbOperation(GridDbCloudMetrics.NONE, "checkConnection");
+        }
+        if (path.endsWith("/sql/dml/query")) {
+            return new GridDbOperation(GridDbCloudMetrics.NONE, "sqlQuery");
+        }
+        if (path.endsWith("/sql/dml/update")) {
+            return new GridDbOperation(GridDbCloudMetrics.NONE, "sqlUpdate");
+        }
+        if (path.endsWith("/containers")) {
+            return new GridDbOperation(GridDbCloudMetrics.NONE, "createContainer");
+        }
+        if (path.endsWith("/containers/rows")) {
+            return new GridDbOperation(GridDbCloudMetrics.NONE, "registerRowsMultipleContainers");
+        }
+        int containers = path.lastIndexOf("/containers/");
+        if (containers >= 0 && path.endsWith("/rows")) {
+            String container =
+                    path.substring(containers + "/containers/".length(), path.length() - 5);
+            return new GridDbOperation(
+                    container, HttpMethod.PUT.equals(method) ? "registerRows" : "acquireRows");
+        }
+        return new GridDbOperation(GridDbCloudMetrics.NONE, "other");
+    }
+
+    private final class InstrumentedClientHttpRequest
+            implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final ClientHttpRequest request;
+        private final GridDbOperation operation;
+        private final BodySample requestSample;
+        private long sentBytes;
+
+        private InstrumentedClientHttpRequest(
+                ClientHttpRequest request, GridDbOperation operation, boolean sampled) {
+            this.request = request;
+            this.operation = operation;
+            this.requestSample = sampled ? new BodySample(logging.getMaxBodyLength()) : null;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            final long begin = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = request.execute();
+            } catch (IOException e) {
+                record("IO_ERROR", begin, 0, null);
+                throw e;
+            }
+            return new InstrumentedClientHttpResponse(response, this, begin);
+        }
+
+        private void record(String status, long begin, long receivedBytes, BodySample response) {
+            long durationNanos = System.nanoTime() - begin;
+            metrics.recordRequest(
+                    operation,
+                    request.getMethod().name(),
+                    status,
+                    durationNanos,
+                    sentBytes,
+                    receivedBytes);
+            log.debug(
+                    "[{}] {} {} {} {} ms, sent {} B, received {} B",
+                    operation,
+                    status,
+                    request.getMethod(),
+                    request.getURI(),
+                    durationNanos / 1_000_000,
+                    sentBytes,
+                    receivedBytes);
+            if (requestSample != null) {
+                log.info(
+                        "[{}] {} {} request body: {} response body: {}",
+                        operation,
+                        request.getMethod(),
+                        request.getURI(),
+                        requestSample,
+                        response);
+            }
+        }
+
+        private OutputStream counting(OutputStream body) {
+            return new FilterOutputStream(body) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    sentBytes++;
+                    if (requestSample != null) {
+                        requestSample.add(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    sentBytes += len;
+                    if (requestSample != null) {
+                        requestSample.add(b, off, len);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void setBody(Body body) {
+            Body counted =
+                    new Body() {
+                        @Override
+                        public void writeTo(OutputStream outputStream) throws IOException {
+                            body.writeTo(counting(outputStream));
+                        }
+
+                        @Override
+                        public boolean repeatable() {
+                            return body.repeatable();
+                        }
+                    };
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(counted);
+            } else {
+                try {
+                    counted.writeTo(request.getBody());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to write request body", e);
+                }
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return counting(request.getBody());
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return request.getAttributes();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    private static final class InstrumentedClientHttpResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final InstrumentedClientHttpRequest request;
+        private final long begin;
+        private final BodySample sample;
+        private InputStream body;
+        private long receivedBytes;
+        private boolean closed;
+
+        private InstrumentedClientHttpResponse(
+                ClientHttpResponse response, InstrumentedClientHttpRequest request, long begin) {
+            this.response = response;
+            this.request = request;
+            this.begin = begin;
+            this.sample =
+                    request.requestSample == null
+                            ? null
+                            : new BodySample(request.requestSample.limit);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body =
+                        new FilterInputStream(response.getBody()) {
+                            @Override
+                            public int read() throws IOException {
+                                int b = in.read();
+                                if (b >= 0) {
+                                    receivedBytes++;
+                                    if (sample != null) {
+                                        sample.add(b);
+                                    }
+                                }
+                                return b;
+                            }
+
+                            @Override
+                            public int read(byte[] b, int off, int len) throws IOException {
+                                int n = in.read(b, off, len);
+                                if (n > 0) {
+                                    receivedBytes += n;
+                                    if (sample != null) {
+                                        sample.add(b, off, n);
+                                    }
+                                }
+                                return n;
+                            }
+                        };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+            if (closed) {
+                return;
+            }
+            closed = true;
+            String status;
+            try {
+                status = String.valueOf(response.getStatusCode().value());
+            } catch (IOException e) {
+                status = "IO_ERROR";
+            }
+            request.record(status, begin, receivedBytes, sample);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+    }
+
+    /** The first {@code limit} bytes of a body, for logging. */
+    private static final class BodySample {
+        private final int limit;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean truncated;
+
+        private BodySample(int limit) {
+            this.limit = limit;
+        }
+
+        synchronized void add(int b) {
+            if (bytes.size() < limit) {
+                bytes.write(b);
+            } else {
+                truncated = true;
+            }
+        }
+
+        synchronized void add(byte[] b, int off, int len) {
+            int room = Math.max(0, limit - bytes.size());
+            bytes.write(b, off, Math.min(room, len));
+            truncated |= len > room;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return bytes.toString(StandardCharsets.UTF_8) + (truncated ? "..." : "");
+        }
+    }
+}
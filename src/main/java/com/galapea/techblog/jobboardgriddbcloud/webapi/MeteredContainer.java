@@ -0,0 +1,22 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean whose public methods are GridDB operations. Each call is timed as
+ * {@code griddbcloud.operation} with the tags {@code container} and {@code operation} (the method
+ * name), and the Web API requests it issues are tagged the same way; see
+ * {@link ContainerMetricsPostProcessor}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface MeteredContainer {
+
+    /** Name of the container, e.g. {@code JBJobPost}. */
+    String value();
+}
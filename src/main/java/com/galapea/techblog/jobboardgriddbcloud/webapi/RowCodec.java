@@ -0,0 +1,266 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.galapea.techblog.jobboardgriddbcloud.util.DateTimeUtil;
+
+/**
+ * Encodes and decodes the rows of one container, driven by the same {@link GridDbColumn} list that
+ * is used to create the container.
+ * <p>
+ * The codec is built once per record type. Each column gets a cell reader chosen from its GridDB
+ * type, and columns registered with {@link Builder#enumColumn} decode through a precomputed
+ * name-to-constant map. When a response carries {@code columns} metadata, the decoder is
+ * {@linkplain #bind bound} to it so cells are matched to schema columns by name rather than by
+ * position; without metadata the schema order is assumed. Records are encoded by
+ * {@link #rowsOf} in schema order.
+ * </p>
+ *
+ * <pre>{@code
+ * static final RowCodec<SkillTagRecord> CODEC =
+ *         RowCodec.builder(COLUMNS)
+ *                 .build(
+ *                         cells -> new SkillTagRecord(cells.get(0), cells.get(1)),
+ *                         record -> new Object[] {record.id(), record.name()});
+ * }</pre>
+ */
+public final class RowCodec<T> implements RowDecoder<T> {
+    private final List<GridDbColumn> columns;
+    private final CellReader[] readers;
+    private final Map<String, Integer> indexByName;
+    private final Function<Cells, T> factory;
+    private final Function<T, Object[]> extractor;
+    private final int[] schemaOrder;
+
+    private RowCodec(
+            List<GridDbColumn> columns,
+            CellReader[] readers,
+            Function<Cells, T> factory,
+            Function<T, Object[]> extractor) {
+        this.columns = columns;
+        this.readers = readers;
+        this.factory = factory;
+        this.extractor = extractor;
+        this.indexByName = new HashMap<>();
+        this.schemaOrder = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            indexByName.put(normalize(columns.get(i).getName()), i);
+            schemaOrder[i] = i;
+        }
+    }
+
+    public static Builder builder(List<GridDbColumn> columns) {
+        return new Builder(columns);
+    }
+
+    public List<GridDbColumn> columns() {
+        return columns;
+    }
+
+    /**
+     * Decodes a single row whose cells are in schema order. Every call allocates a decoder; to
+     * decode the rows of a response, {@link #bind} once and reuse the result.
+     */
+    @Override
+    public T decode(RowCursor row) throws IOException {
+        return bind().decode(row);
+    }
+
+    /** Returns a decoder for a response without column metadata, whose cells are in schema order. */
+    @Override
+    public RowDecoder<T> bind() {
+        return new BoundDecoder(schemaOrder);
+    }
+
+    /**
+     * Returns a decoder for a response with the given column layout. Response columns that are not
+     * part of the schema are skipped, and schema columns missing from the response decode as
+     * {@code null}. If a name repeats (e.g. an unaliased join), the first occurrence wins.
+     */
+    @Override
+    public RowDecoder<T> bind(List<String> columnNames) {
+        int[] schemaIndexes = new int[columnNames.size()];
+        boolean[] seen = new boolean[columns.size()];
+        for (int i = 0; i < columnNames.size(); i++) {
+            Integer index = indexByName.get(normalize(columnNames.get(i)));
+            if (index == null || seen[index]) {
+                schemaIndexes[i] = -1;
+            } else {
+                schemaIndexes[i] = index;
+                seen[index] = true;
+            }
+        }
+        return new BoundDecoder(schemaIndexes);
+    }
+
+    /**
+     * Returns the records as a {@link RowSource} for
+     * {@link GridDbCloudClient#registerRows(String, RowSource)}. Records are encoded lazily, one at
+     * a time, while the request body is written.
+     */
+    public RowSource rowsOf(Iterable<? extends T> records) {
+        return generator -> {
+            for (T record : records) {
+                writeRow(generator, record);
+            }
+        };
+    }
+
+    private void writeRow(JsonGenerator generator, T record) throws IOException {
+        Object[] values = extractor.apply(record);
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + columns.size() + " values but got " + values.length);
+        }
+        generator.writeStartArray();
+        for (Object value : values) {
+            switch (value) {
+                case null -> generator.writeNull();
+                case String text -> generator.writeString(text);
+                case Double number -> generator.writeNumber(number);
+                case Long number -> generator.writeNumber(number);
+                case Integer number -> generator.writeNumber(number);
+                case Boolean bool -> generator.writeBoolean(bool);
+                case Enum<?> constant -> generator.writeString(constant.name());
+                case LocalDateTime time ->
+                        generator.writeString(DateTimeUtil.formatToZoneDateTimeString(time));
+                default -> generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Decoded cells of one row, indexed by schema position. Values have the Java type of their
+     * column: {@code String}, {@code Integer}, {@code Long}, {@code Double}, {@code LocalDateTime},
+     * or the enum registered for the column.
+     */
+    public static final class Cells {
+        private final Object[] values;
+
+        private Cells(int size) {
+            this.values = new Object[size];
+        }
+
+        @SuppressWarnings("unchecked")
+        public <V> V get(int index) {
+            return (V) values[index];
+        }
+    }
+
+    private final class BoundDecoder implements RowDecoder<T> {
+        private final int[] schemaIndexes;
+        // a bound decoder serves a single response, whose rows are decoded one after another, so
+        // the cell buffer can be reused
+        private final Cells cells = new Cells(columns.size());
+
+        private BoundDecoder(int[] schemaIndexes) {
+            this.schemaIndexes = schemaIndexes;
+        }
+
+        @Override
+        public T decode(RowCursor row) throws IOException {
+            Arrays.fill(cells.values, null);
+            for (int schemaIndex : schemaIndexes) {
+                if (schemaIndex < 0) {
+                    row.skip();
+                } else {
+                    cells.values[schemaIndex] = readers[schemaIndex].read(row);
+                }
+            }
+            return factory.apply(cells);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellReader {
+        Object read(RowCursor row) throws IOException;
+    }
+
+    public static final class Builder {
+        private final List<GridDbColumn> columns;
+        private final Map<String, Class<? extends Enum<?>>> enumTypes = new HashMap<>();
+
+        private Builder(List<GridDbColumn> columns) {
+            this.columns = List.copyOf(columns);
+        }
+
+        /** Decodes the named {@code STRING} column into constants of {@code type}. */
+        public Builder enumColumn(String name, Class<? extends Enum<?>> type) {
+            enumTypes.put(name, type);
+            return this;
+        }
+
+        /**
+         * @param factory
+         *            creates a record from the decoded cells
+         * @param extractor
+         *            returns the values of a record in schema order
+         */
+        public <T> RowCodec<T> build(Function<Cells, T> factory, Function<T, Object[]> extractor) {
+            CellReader[] readers = new CellReader[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                GridDbColumn column = columns.get(i);
+                Class<? extends Enum<?>> enumType = enumTypes.get(column.getName());
+                readers[i] = enumType != null ? enumReader(column, enumType) : typedReader(column);
+            }
+            return new RowCodec<>(columns, readers, factory, extractor);
+        }
+
+        private static CellReader typedReader(GridDbColumn column) {
+            return switch (column.getType()) {
+                case "STRING" -> RowCursor::nextString;
+                case "DOUBLE" -> RowCursor::nextDouble;
+                case "LONG" -> RowCursor::nextLong;
+                case "INTEGER" ->
+                        row -> {
+                            Long value = row.nextLong();
+                            return value == null ? null : Math.toIntExact(value);
+                        };
+                case "TIMESTAMP" -> RowCursor::nextTimestamp;
+                default ->
+                        throw new IllegalArgumentException(
+                                "Unsupported type "
+                                        + column.getType()
+                                        + " of column "
+                                        + column.getName());
+            };
+        }
+
+        private static CellReader enumReader(
+                GridDbColumn column, Class<? extends Enum<?>> enumType) {
+            if (!"STRING".equals(column.getType())) {
+                throw new IllegalArgumentException(
+                        "Enum column " + column.getName() + " must be of type STRING");
+            }
+            Map<String, Enum<?>> constants = new HashMap<>();
+            for (Enum<?> constant : enumType.getEnumConstants()) {
+                constants.put(constant.name(), constant);
+            }
+            return row -> {
+                String name = row.nextString();
+                if (name == null) {
+                    return null;
+                }
+                Enum<?> constant = constants.get(name);
+                if (constant == null) {
+                    throw new IllegalArgumentException(
+                            "Unknown " + enumType.getSimpleName() + " value: " + name);
+                }
+                return constant;
+            };
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.galapea.techblog.jobboardgriddbcloud.util.DateTimeUtil;
+
+/**
+ * Sequential, allocation-light access to the cells of one row of a GridDB Web API response. Each
+ * {@code next*} call consumes exactly one cell from the underlying {@link JsonParser}.
+ */
+public final class RowCursor {
+    private final JsonParser parser;
+    private JsonStreamContext rowContext;
+
+    RowCursor(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /** Called with the parser positioned on the {@code START_ARRAY} token of a row. */
+    void startRow() {
+        this.rowContext = parser.getParsingContext();
+    }
+
+    /** Advances the parser past the {@code END_ARRAY} token of the current row. */
+    void finishRow() throws IOException {
+        while (parser.getParsingContext() != rowContext.getParent()) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return;
+            }
+            if (token.isStructStart()) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private JsonToken nextCell() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            throw new IllegalStateException("Row has fewer cells than expected");
+        }
+        return token;
+    }
+
+    public String nextString() throws IOException {
+        JsonToken token = nextCell();
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    public Double nextDouble() throws IOException {
+        JsonToken token = nextCell();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        return Double.valueOf(parser.getText());
+    }
+
+    public Long nextLong() throws IOException {
+        JsonToken token = nextCell();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isNumeric()) {
+            return parser.getLongValue();
+        }
+        return Long.valueOf(parser.getText());
+    }
+
+    public LocalDateTime nextTimestamp() throws IOException {
+        JsonToken token = nextCell();
+        return token == JsonToken.VALUE_NULL
+                ? null
+                : DateTimeUtil.parseToLocalDateTime(parser.getText());
+    }
+
+    public <E extends Enum<E>> E nextEnum(Class<E> type) throws IOException {
+        JsonToken token = nextCell();
+        return token == JsonToken.VALUE_NULL ? null : Enum.valueOf(type, parser.getText());
+    }
+
+    /** Consumes and ignores one cell. */
+    public void skip() throws IOException {
+        if (nextCell().isStructStart()) {
+            parser.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Maps one row of a GridDB Web API response straight into a record while the response is being
+ * parsed. Cells are read in column order from the {@link RowCursor}; cells that are not read are
+ * skipped.
+ */
+@FunctionalInterface
+public interface RowDecoder<T> {
+
+    T decode(RowCursor row) throws IOException;
+
+    /**
+     * Returns the decoder to use for a response whose {@code columns} metadata lists the given
+     * column names, in cell order. Positional decoders ignore the metadata.
+     */
+    default RowDecoder<T> bind(List<String> columnNames) {
+        return this;
+    }
+
+    /**
+     * Returns the decoder to use for a response without {@code columns} metadata, whose cells are
+     * in the order the decoder expects. Called once per response, so decoders that need per-row
+     * state can set it up here instead of in {@link #decode}.
+     */
+    default RowDecoder<T> bind() {
+        return this;
+    }
+}
@@ -0,0 +1,17 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Rows to register in a container, written one by one as JSON arrays straight into the request
+ * body. The enclosing array is written by the caller.
+ *
+ * @see GridDbCloudClient#registerRows(String, RowSource)
+ */
+@FunctionalInterface
+public interface RowSource {
+
+    void writeRows(JsonGenerator generator) throws IOException;
+}
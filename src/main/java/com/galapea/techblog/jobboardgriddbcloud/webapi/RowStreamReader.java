@@ -0,0 +1,180 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streams the rows of {@code AcquireRowsResponse} and {@code SQLSelectResponse} payloads into
+ * {@link RowDecoder}s, without materializing the intermediate {@code List<List<Object>>}.
+ * <p>
+ * The decoder is bound once per response: to the {@code columns} metadata that precedes the rows
+ * when there is one, so schema-driven decoders can match cells to columns by name, otherwise with
+ * {@link RowDecoder#bind()}. A row that the decoder cannot map is logged, skipped and counted in
+ * {@code griddbcloud.rows.skipped}, so short pages show up in the metrics; malformed JSON fails
+ * the whole read.
+ * </p>
+ */
+public class RowStreamReader {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final JsonFactory jsonFactory;
+    private final GridDbCloudMetrics metrics;
+
+    public RowStreamReader(JsonFactory jsonFactory) {
+        this(jsonFactory, new GridDbCloudMetrics(null));
+    }
+
+    public RowStreamReader(JsonFactory jsonFactory, GridDbCloudMetrics metrics) {
+        this.jsonFactory = jsonFactory;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reads a row acquisition response and passes every decoded row to {@code rowHandler}.
+     *
+     * @return the {@code total} field of the response
+     */
+    public <T> long readAcquireRows(
+            InputStream body, RowDecoder<T> decoder, Consumer<? super T> rowHandler)
+            throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            long total = 0;
+            RowDecoder<T> boundDecoder = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("columns".equals(field) && value == JsonToken.START_ARRAY) {
+                    boundDecoder = decoder.bind(readColumnNames(parser));
+                } else if ("rows".equals(field) && value == JsonToken.START_ARRAY) {
+                    readRows(
+                            parser,
+                            boundDecoder == null ? decoder.bind() : boundDecoder,
+                            rowHandler);
+                } else if ("total".equals(field) && value.isNumeric()) {
+                    total = parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Reads a SQL query response. The n-th result set is decoded with the n-th handler.
+     */
+    public void readSelectResults(InputStream body, List<? extends SQLSelectHandler<?>> handlers)
+            throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                SQLSelectHandler<?> handler = index < handlers.size() ? handlers.get(index) : null;
+                index++;
+                List<String> columnNames = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (handler != null
+                            && "columns".equals(field)
+                            && value == JsonToken.START_ARRAY) {
+                        columnNames = readColumnNames(parser);
+                    } else if (handler != null
+                            && "results".equals(field)
+                            && value == JsonToken.START_ARRAY) {
+                        readRows(parser, handler, columnNames);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            if (index != handlers.size()) {
+                throw new IOException(
+                        "Expected " + handlers.size() + " result sets but got " + index);
+            }
+        }
+    }
+
+    private <T> void readRows(
+            JsonParser parser, SQLSelectHandler<T> handler, List<String> columnNames)
+            throws IOException {
+        RowDecoder<T> decoder =
+                columnNames == null
+                        ? handler.decoder().bind()
+                        : handler.decoder().bind(columnNames);
+        readRows(parser, decoder, handler.rowHandler());
+    }
+
+    /** Reads {@code [{"name": ..., "type": ...}, ...]} and returns the names in order. */
+    private List<String> readColumnNames(JsonParser parser) throws IOException {
+        List<String> names = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            String name = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("name".equals(field)) {
+                    name = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            names.add(name == null ? "" : name);
+        }
+        expect(parser, token, JsonToken.END_ARRAY);
+        return names;
+    }
+
+    private <T> void readRows(
+            JsonParser parser, RowDecoder<T> decoder, Consumer<? super T> rowHandler)
+            throws IOException {
+        RowCursor cursor = new RowCursor(parser);
+        long skipped = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+            cursor.startRow();
+            T row = null;
+            try {
+                row = decoder.decode(cursor);
+            } catch (RuntimeException e) {
+                skipped++;
+                log.error(
+                        "Error parsing row at {}. Error: {}",
+                        parser.currentLocation(),
+                        e.getMessage());
+            }
+            cursor.finishRow();
+            if (row != null) {
+                rowHandler.accept(row);
+            }
+        }
+        expect(parser, token, JsonToken.END_ARRAY);
+        if (skipped > 0) {
+            metrics.recordSkippedRows(skipped);
+        }
+    }
+
+    private void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+            throws IOException {
+        if (actual != expected) {
+            throw new IOException(
+                    "Unexpected token "
+                            + actual
+                            + " at "
+                            + parser.currentLocation()
+                            + ", expected "
+                            + expected);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Optional write-behind buffer in front of {@link GridDbCloudClient#registerRows}.
+ * <p>
+ * When enabled, rows submitted for the same container are collected and sent as one PUT once
+ * {@code batch-size} rows are waiting or the oldest row has waited {@code max-delay}. Batches of a
+ * container are written one after another, so a later write of a row never overtakes an earlier
+ * one. Writers block when {@code max-pending-rows} are buffered or in flight, and
+ * {@link #close()} drains everything still pending. When disabled, rows are sent on the calling
+ * thread.
+ * </p>
+ */
+public class RowWriteBuffer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(RowWriteBuffer.class);
+    private static final String METRIC_PREFIX = "griddbcloud.write.buffer";
+
+    private final GridDbCloudClient gridDbCloudClient;
+    private final GridDbCloudClientProperties.WriteBehind settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ContainerBuffer> buffers = new ConcurrentHashMap<>();
+    private final Semaphore capacity;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService flushExecutor;
+    private final Counter backpressure;
+    private volatile boolean closed;
+
+    public RowWriteBuffer(
+            GridDbCloudClient gridDbCloudClient,
+            GridDbCloudClientProperties.WriteBehind settings,
+            MeterRegistry meterRegistry) {
+        this.gridDbCloudClient = gridDbCloudClient;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.capacity = new Semaphore(settings.getMaxPendingRows());
+        if (settings.isEnabled()) {
+            log.info(
+                    "GridDBCloud write-behind: batchSize={}, maxDelay={}, maxPendingRows={}",
+                    settings.getBatchSize(),
+                    settings.getMaxDelay(),
+                    settings.getMaxPendingRows());
+            this.scheduler =
+                    Executors.newSingleThreadScheduledExecutor(
+                            Thread.ofPlatform().name("griddb-write-behind").daemon().factory());
+            this.flushExecutor =
+                    Executors.newThreadPerTaskExecutor(
+                            Thread.ofVirtual().name("griddb-flush-", 0).factory());
+        } else {
+            this.scheduler = null;
+            this.flushExecutor = null;
+        }
+        this.backpressure =
+                meterRegistry == null
+                        ? null
+                        : Counter.builder(METRIC_PREFIX + ".backpressure")
+                                .description("Writes that had to wait for buffer capacity")
+                                .register(meterRegistry);
+        if (meterRegistry != null) {
+            Gauge.builder(
+                            METRIC_PREFIX + ".pending",
+                            capacity,
+                            c -> settings.getMaxPendingRows() - c.availablePermits())
+                    .description("Rows buffered or in flight")
+                    .baseUnit("rows")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues rows for {@code containerName}. The returned future completes when the batch that
+     * contains them has been written, or completes exceptionally with the {@link GridDbException}
+     * of that batch.
+     *
+     * @param rowCount
+     *            number of rows written by {@code rows}, used for batching and backpressure
+     */
+    public CompletableFuture<Void> submit(String containerName, int rowCount, RowSource rows) {
+        if (!settings.isEnabled() || closed) {
+            try {
+                gridDbCloudClient.registerRows(containerName, rows);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        int permits = Math.min(Math.max(rowCount, 1), settings.getMaxPendingRows());
+        acquire(permits);
+        PendingWrite write = new PendingWrite(rowCount, permits, rows, new CompletableFuture<>());
+        buffers.computeIfAbsent(containerName, ContainerBuffer::new).add(write);
+        return write.completion();
+    }
+
+    /**
+     * Like {@link #submit} but waits for the rows to be written.
+     *
+     * @throws GridDbException
+     *             if the batch could not be written
+     */
+    public void write(String containerName, int rowCount, RowSource rows) {
+        try {
+            submit(containerName, rowCount, rows).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void acquire(int permits) {
+        if (capacity.tryAcquire(permits)) {
+            return;
+        }
+        if (backpressure != null) {
+            backpressure.increment();
+        }
+        try {
+            capacity.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GridDbException(
+                    "Interrupted while waiting for write buffer capacity",
+                    HttpStatusCode.valueOf(503),
+                    e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Flushes all buffers and waits up to {@code drain-timeout} for pending rows to be written.
+     * Rows submitted after this call are sent immediately.
+     */
+    @Override
+    public void close() {
+        if (!settings.isEnabled() || closed) {
+            return;
+        }
+        closed = true;
+        buffers.values().forEach(ContainerBuffer::flushNow);
+        long deadline = System.nanoTime() + settings.getDrainTimeout().toNanos();
+        int pendingRows;
+        while ((pendingRows = settings.getMaxPendingRows() - capacity.availablePermits()) > 0
+                && System.nanoTime() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (pendingRows > 0) {
+            log.warn("Write-behind buffer closed with {} rows not written", pendingRows);
+        } else {
+            log.info("Write-behind buffer drained");
+        }
+        scheduler.shutdownNow();
+        flushExecutor.shutdown();
+    }
+
+    private record PendingWrite(
+            int rowCount, int permits, RowSource rows, CompletableFuture<Void> completion) {}
+
+    /**
+     * Pending rows of one container. At most one flush of a container runs at a time; while it
+     * runs, new rows accumulate for the next batch.
+     */
+    private final class ContainerBuffer {
+        private final String containerName;
+        private final Timer flushTimer;
+        private final DistributionSummary batchRows;
+        private List<PendingWrite> pending = new ArrayList<>();
+        private int pendingRows;
+        private boolean flushing;
+        private ScheduledFuture<?> timer;
+
+        private ContainerBuffer(String containerName) {
+            this.containerName = containerName;
+            if (meterRegistry != null) {
+                this.flushTimer =
+                        Timer.builder(METRIC_PREFIX + ".flush")
+                                .description("Batched registerRows calls")
+                                .tag("container", containerName)
+                                .register(meterRegistry);
+                this.batchRows =
+                        DistributionSummary.builder(METRIC_PREFIX + ".batch.rows")
+                                .description("Rows per batched registerRows call")
+                                .baseUnit("rows")
+                                .tag("container", containerName)
+                                .register(meterRegistry);
+            } else {
+                this.flushTimer = null;
+                this.batchRows = null;
+            }
+        }
+
+        synchronized void add(PendingWrite write) {
+            pending.add(write);
+            pendingRows += write.rowCount();
+            if (flushing) {
+                return;
+            }
+            if (pendingRows >= settings.getBatchSize() || closed) {
+                startFlush();
+            } else if (timer == null) {
+                timer =
+                        scheduler.schedule(
+                                this::flushNow,
+                                settings.getMaxDelay().toNanos(),
+                                TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void flushNow() {
+            if (!flushing && !pending.isEmpty()) {
+                startFlush();
+            }
+        }
+
+        private void startFlush() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            flushing = true;
+            flushExecutor.execute(this::flushLoop);
+        }
+
+        private void flushLoop() {
+            while (true) {
+                List<PendingWrite> batch;
+                int rows;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        flushing = false;
+                        return;
+                    }
+                    batch = pending;
+                    rows = pendingRows;
+                    pending = new ArrayList<>();
+                    pendingRows = 0;
+                }
+                writeBatch(batch, rows);
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        flushing = false;
+                        return;
+                    }
+                    if (pendingRows < settings.getBatchSize() && !closed) {
+                        flushing = false;
+                        timer =
+                                scheduler.schedule(
+                                        this::flushNow,
+                                        settings.getMaxDelay().toNanos(),
+                                        TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void writeBatch(List<PendingWrite> batch, int rows) {
+            long begin = System.nanoTime();
+            RuntimeException failure = null;
+            try {
+                gridDbCloudClient.registerRows(
+                        containerName,
+                        generator -> {
+                            for (PendingWrite write : batch) {
+                                write.rows().writeRows(generator);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                log.error(
+                        "Failed to write {} buffered rows to {}: {}",
+                        rows,
+                        containerName,
+                        e.getMessage());
+                failure = e;
+            }
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+                batchRows.record(rows);
+            }
+            for (PendingWrite write : batch) {
+                capacity.release(write.permits());
+                if (failure == null) {
+                    write.completion().complete(null);
+                } else {
+                    write.completion().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+}
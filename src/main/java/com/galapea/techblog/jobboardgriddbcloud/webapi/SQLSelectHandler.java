@@ -0,0 +1,10 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.util.function.Consumer;
+
+/**
+ * One statement of a {@code /sql/dml/query} request together with the decoder for its result rows
+ * and the callback that receives each decoded row.
+ */
+public record SQLSelectHandler<T>(
+        GridDbCloudSQLStmt statement, RowDecoder<T> decoder, Consumer<? super T> rowHandler) {}
@@ -0,0 +1,106 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Deduplicates concurrent calls with equal keys: the first caller runs the call, callers that
+ * arrive while it is in flight wait for and share its result or exception. Nothing is cached once
+ * the call completes.
+ * <p>
+ * The caller running the call decides when to stop accepting others with {@link Flight#share()},
+ * typically once the response starts to arrive. Only when someone joined by then does it have to
+ * keep a result to hand over with {@link Flight#complete}; otherwise it can stream the response to
+ * its own consumer without buffering anything.
+ * </p>
+ */
+final class SingleFlight {
+    private final ConcurrentMap<Object, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code leader} with a new {@link Flight}, or passes the result of an equal flight that is
+     * still accepting callers to {@code follower}.
+     */
+    @SuppressWarnings("unchecked")
+    <V, R> R execute(Object key, Function<Flight<V>, R> leader, Function<? super V, R> follower) {
+        while (true) {
+            Flight<V> own = new Flight<>(key);
+            Flight<V> existing = (Flight<V>) inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                return lead(own, leader);
+            }
+            if (existing.join()) {
+                return follower.apply(existing.await());
+            }
+            // the flight stopped accepting callers but is not removed yet
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private <V, R> R lead(Flight<V> flight, Function<Flight<V>, R> leader) {
+        try {
+            return leader.apply(flight);
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (flight.share() && !flight.result.isDone()) {
+                flight.result.completeExceptionally(
+                        new IllegalStateException("Shared call completed without a result"));
+            }
+        }
+    }
+
+    /** One call in flight; see {@link SingleFlight}. */
+    final class Flight<V> {
+        private final Object key;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private int followers;
+        private boolean closed;
+
+        private Flight(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Stops accepting callers.
+         *
+         * @return whether callers joined, in which case the result must be passed to
+         *     {@link #complete}
+         */
+        synchronized boolean share() {
+            if (!closed) {
+                closed = true;
+                inFlight.remove(key, this);
+            }
+            return followers > 0;
+        }
+
+        /** Hands the result over to the callers that joined. */
+        void complete(V value) {
+            result.complete(value);
+        }
+
+        private synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            followers++;
+            return true;
+        }
+
+        private V await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.galapea.techblog.jobboardgriddbcloud.webapi.acquisition;
 
+import java.util.Objects;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class AcquireRowsRequest {
@@ -48,6 +50,25 @@ public class AcquireRowsRequest {
         this.sort = value;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AcquireRowsRequest that)) {
+            return false;
+        }
+        return Objects.equals(offset, that.offset)
+                && Objects.equals(limit, that.limit)
+                && Objects.equals(condition, that.condition)
+                && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, limit, condition, sort);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
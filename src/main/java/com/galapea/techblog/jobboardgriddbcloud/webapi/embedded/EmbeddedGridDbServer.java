@@ -0,0 +1,286 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi.embedded;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbCloudClientProperties;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP server on the loopback interface that answers the GridDB Web API calls made by
+ * {@code GridDbCloudClient}, with the containers kept in H2 (see {@link H2ContainerStore}). It lets
+ * the application run, and be load-tested, without GridDB Cloud or network access.
+ * <p>
+ * Supported calls, matched by the end of the path so that any base URL prefix works:
+ * </p>
+ * <ul>
+ * <li>{@code GET /checkConnection}</li>
+ * <li>{@code POST /containers}: create a container, 409 if it exists</li>
+ * <li>{@code PUT /containers/{name}/rows}: register rows</li>
+ * <li>{@code POST /containers/{name}/rows}: acquire rows</li>
+ * <li>{@code PUT /containers/rows}: register rows in several containers</li>
+ * <li>{@code POST /sql/dml/query} and {@code POST /sql/dml/update} (also {@code /sql/update})</li>
+ * </ul>
+ * <p>
+ * Every call but {@code checkConnection} is delayed by {@code latency} plus a random share of
+ * {@code latency-jitter}, and a random {@code error-rate} share of them is answered with
+ * {@code error-status} without being executed, so retries and timeouts can be exercised
+ * repeatably. Errors have the body of GridDB Cloud errors.
+ * </p>
+ */
+public class EmbeddedGridDbServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedGridDbServer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern CONTAINER_ROWS = Pattern.compile(".*/containers/([^/]+)/rows");
+
+    private final GridDbCloudClientProperties.Embedded settings;
+    private final H2ContainerStore store;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private EmbeddedGridDbServer(
+            GridDbCloudClientProperties.Embedded settings,
+            H2ContainerStore store,
+            HttpServer server,
+            ExecutorService executor) {
+        this.settings = settings;
+        this.store = store;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static EmbeddedGridDbServer start(GridDbCloudClientProperties.Embedded settings) {
+        // without TCP_NODELAY, Nagle's algorithm and delayed ACKs add ~40 ms to every response;
+        // the JDK server reads this once, when the first server is created
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server;
+        try {
+            server =
+                    HttpServer.create(
+                            new InetSocketAddress(
+                                    InetAddress.getLoopbackAddress(), settings.getPort()),
+                            1024);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Failed to start the embedded GridDB server on port " + settings.getPort(), e);
+        }
+        ExecutorService executor =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("griddb-embedded-", 0).factory());
+        EmbeddedGridDbServer embedded =
+                new EmbeddedGridDbServer(
+                        settings, new H2ContainerStore(settings.getJdbcUrl()), server, executor);
+        server.createContext("/", embedded::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info(
+                "Embedded GridDB server at {}: jdbcUrl={}, latency={}, latencyJitter={}, errorRate={}",
+                embedded.getBaseUrl(),
+                settings.getJdbcUrl(),
+                settings.getLatency(),
+                settings.getLatencyJitter(),
+                settings.getErrorRate());
+        return embedded;
+    }
+
+    /** The base URL to give {@code GridDbCloudClient}. */
+    public String getBaseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (path.endsWith("/checkConnection")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            try {
+                if (injectFault(exchange)) {
+                    return;
+                }
+                route(exchange, method, path);
+            } catch (GridDbException e) {
+                sendError(exchange, e.getStatusCode().value(), e.getErrorBody());
+            } catch (JsonProcessingException e) {
+                sendError(exchange, 400, e.getOriginalMessage());
+            } catch (RuntimeException e) {
+                log.error("Embedded GridDB server failed on {} {}", method, path, e);
+                sendError(exchange, 500, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String path) throws IOException {
+        Matcher containerRows = CONTAINER_ROWS.matcher(path);
+        if (path.endsWith("/containers") && "POST".equals(method)) {
+            store.createContainer(readTree(exchange));
+            exchange.sendResponseHeaders(201, -1);
+        } else if (path.endsWith("/containers/rows") && "PUT".equals(method)) {
+            registerRowsMultipleContainers(exchange);
+        } else if (containerRows.matches() && "PUT".equals(method)) {
+            try (InputStream body = exchange.getRequestBody()) {
+                Iterator<JsonNode> rows = MAPPER.readerFor(JsonNode.class).readValues(body);
+                long count = store.registerRows(containerRows.group(1), rows);
+                respond(
+                        exchange,
+                        generator -> {
+                            generator.writeStartObject();
+                            generator.writeNumberField("count", count);
+                            generator.writeEndObject();
+                        });
+            }
+        } else if (containerRows.matches() && "POST".equals(method)) {
+            JsonNode request = readTree(exchange);
+            String container = containerRows.group(1);
+            respond(exchange, generator -> store.acquireRows(container, request, generator));
+        } else if (path.endsWith("/sql/dml/query") && "POST".equals(method)) {
+            List<String> statements = readStatements(exchange);
+            respond(exchange, generator -> store.select(statements, generator));
+        } else if ((path.endsWith("/sql/dml/update") || path.endsWith("/sql/update"))
+                && "POST".equals(method)) {
+            List<String> statements = readStatements(exchange);
+            respond(exchange, generator -> store.update(statements, generator));
+        } else {
+            sendError(exchange, 404, "No such endpoint: " + method + " " + path);
+        }
+    }
+
+    private void registerRowsMultipleContainers(HttpExchange exchange) throws IOException {
+        JsonNode body = readTree(exchange);
+        if (!body.isArray()) {
+            throw badRequest("Expected an array of containers");
+        }
+        List<String> containers = new ArrayList<>(body.size());
+        List<Long> counts = new ArrayList<>(body.size());
+        for (JsonNode container : body) {
+            String name = container.path("containerName").asText();
+            containers.add(name);
+            counts.add(store.registerRows(name, container.path("rows").elements()));
+        }
+        respond(
+                exchange,
+                generator -> {
+                    generator.writeStartArray();
+                    for (int i = 0; i < containers.size(); i++) {
+                        generator.writeStartObject();
+                        generator.writeStringField("containerName", containers.get(i));
+                        generator.writeNumberField("updatedRows", counts.get(i));
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                });
+    }
+
+    /** Sleeps for the configured latency and returns whether an error was sent instead. */
+    private boolean injectFault(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = settings.getLatency().toNanos();
+        Duration jitter = settings.getLatencyJitter();
+        if (jitter.toNanos() > 0) {
+            delayNanos += random.nextLong(jitter.toNanos());
+        }
+        if (delayNanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(delayNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (settings.getErrorRate() > 0 && random.nextDouble() < settings.getErrorRate()) {
+            sendError(exchange, settings.getErrorStatus(), "Injected error");
+            return true;
+        }
+        return false;
+    }
+
+    private static JsonNode readTree(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return MAPPER.readTree(body);
+        }
+    }
+
+    private static List<String> readStatements(HttpExchange exchange) throws IOException {
+        JsonNode body = readTree(exchange);
+        if (!body.isArray()) {
+            throw badRequest("Expected an array of statements");
+        }
+        List<String> statements = new ArrayList<>(body.size());
+        for (JsonNode statement : body) {
+            statements.add(statement.path("stmt").asText());
+        }
+        return statements;
+    }
+
+    private interface ResponseWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    // buffered, so that a statement failing halfway still gets an error status
+    private static void respond(HttpExchange exchange, ResponseWriter writer) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(buffer)) {
+            writer.write(generator);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, buffer.size());
+        try (OutputStream body = exchange.getResponseBody()) {
+            buffer.writeTo(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message)
+            throws IOException {
+        byte[] body =
+                MAPPER.writeValueAsBytes(
+                        MAPPER.createObjectNode()
+                                .put("version", "v2")
+                                .put("errorCode", status)
+                                .put("errorMessage", message));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static GridDbException badRequest(String message) {
+        return new GridDbException(message, HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,416 @@
+package com.galapea.techblog.jobboardgriddbcloud.webapi.embedded;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.galapea.techblog.jobboardgriddbcloud.util.DateTimeUtil;
+import com.galapea.techblog.jobboardgriddbcloud.webapi.GridDbException;
+
+/**
+ * GridDB containers kept as tables of an H2 database.
+ * <p>
+ * Container and column names are quoted, so they keep their case, while unquoted names in
+ * conditions and SQL statements match them case-insensitively. A container with a row key gets a
+ * primary key on its first column and rows registered with an existing key replace the old row,
+ * as in GridDB. {@code TIMESTAMP} columns are stored with their offset and always returned in
+ * UTC. TQL conditions and GridDB SQL are translated where they differ from H2: {@code ==} becomes
+ * {@code =} and {@code TIMESTAMP('...')} a timestamp literal.
+ * </p>
+ */
+class H2ContainerStore {
+    private static final int BATCH_SIZE = 1000;
+    private static final int TABLE_ALREADY_EXISTS = 42101;
+    private static final Pattern TIMESTAMP_FUNCTION =
+            Pattern.compile("TIMESTAMP\\s*\\(\\s*('[^']*')\\s*\\)", Pattern.CASE_INSENSITIVE);
+
+    private final String jdbcUrl;
+    // keyed by lower-case container name
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+
+    H2ContainerStore(String jdbcUrl) {
+        String url = jdbcUrl;
+        if (!url.toUpperCase(Locale.ROOT).contains("DATABASE_TO_UPPER")) {
+            url += ";DATABASE_TO_UPPER=FALSE";
+        }
+        if (!url.toUpperCase(Locale.ROOT).contains("CASE_INSENSITIVE_IDENTIFIERS")) {
+            url += ";CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+        }
+        this.jdbcUrl = url;
+    }
+
+    private Connection connection() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl);
+    }
+
+    /** Creates a container from a {@code GridDbContainerDefinition} body. */
+    void createContainer(JsonNode definition) {
+        String name = definition.path("container_name").asText(null);
+        JsonNode columnsNode = definition.path("columns");
+        if (name == null || name.isBlank() || !columnsNode.isArray() || columnsNode.isEmpty()) {
+            throw badRequest("container_name and columns are required");
+        }
+        boolean rowKey = definition.path("rowkey").asBoolean(false);
+        List<Column> columns = new ArrayList<>();
+        StringBuilder ddl = new StringBuilder("CREATE TABLE ").append(quote(name)).append(" (");
+        List<String> indexes = new ArrayList<>();
+        for (JsonNode columnNode : columnsNode) {
+            String columnName = columnNode.path("name").asText();
+            String type = columnNode.path("type").asText().toUpperCase(Locale.ROOT);
+            if (!columns.isEmpty()) {
+                ddl.append(", ");
+            }
+            ddl.append(quote(columnName)).append(' ').append(sqlType(type));
+            if (rowKey && columns.isEmpty()) {
+                ddl.append(" PRIMARY KEY");
+            } else if (columnNode.path("index").isArray() && !columnNode.path("index").isEmpty()) {
+                indexes.add("CREATE INDEX ON " + quote(name) + " (" + quote(columnName) + ")");
+            }
+            columns.add(new Column(columnName, type));
+        }
+        ddl.append(')');
+        try (Connection connection = connection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(ddl.toString());
+            for (String index : indexes) {
+                statement.execute(index);
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == TABLE_ALREADY_EXISTS) {
+                throw new GridDbException(
+                        "Container already exists", HttpStatus.CONFLICT, e.getMessage(), e);
+            }
+            throw badRequest(e);
+        }
+        tables.put(key(name), new Table(name, columns, rowKey));
+    }
+
+    /**
+     * Registers rows, each a JSON array with a value per column, and returns how many were
+     * written. Rows of a container with a row key replace the rows with the same key.
+     */
+    long registerRows(String container, Iterator<JsonNode> rows) {
+        Table table = table(container);
+        StringBuilder sql =
+                new StringBuilder(table.rowKey() ? "MERGE INTO " : "INSERT INTO ")
+                        .append(quote(table.name()))
+                        .append(" VALUES (");
+        for (int i = 0; i < table.columns().size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        long count = 0;
+        try (Connection connection = connection();
+                PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            connection.setAutoCommit(false);
+            while (rows.hasNext()) {
+                JsonNode row = rows.next();
+                if (!row.isArray() || row.size() != table.columns().size()) {
+                    throw badRequest(
+                            "Expected "
+                                    + table.columns().size()
+                                    + " values per row in "
+                                    + table.name()
+                                    + " but got "
+                                    + row);
+                }
+                for (int i = 0; i < row.size(); i++) {
+                    bind(statement, i + 1, table.columns().get(i).type(), row.get(i));
+                }
+                statement.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException | IllegalArgumentException e) {
+            throw badRequest(e);
+        }
+        return count;
+    }
+
+    /** Writes an {@code AcquireRowsResponse} for an {@code AcquireRowsRequest} body. */
+    void acquireRows(String container, JsonNode request, JsonGenerator generator)
+            throws IOException {
+        Table table = table(container);
+        long offset = request.path("offset").asLong(0);
+        JsonNode limit = request.path("limit");
+        String condition = request.path("condition").asText(null);
+        String sort = request.path("sort").asText(null);
+        String where = condition == null || condition.isBlank() ? "" : " WHERE " + toSql(condition);
+        String select =
+                "SELECT * FROM "
+                        + quote(table.name())
+                        + where
+                        + (sort == null || sort.isBlank() ? "" : " ORDER BY " + sort)
+                        + (limit.isNumber() ? " LIMIT " + limit.asLong() : "")
+                        + (offset > 0 ? " OFFSET " + offset : "");
+        try (Connection connection = connection();
+                Statement statement = connection.createStatement()) {
+            long total;
+            try (ResultSet count =
+                    statement.executeQuery("SELECT COUNT(*) FROM " + quote(table.name()) + where)) {
+                count.next();
+                total = count.getLong(1);
+            }
+            try (ResultSet rows = statement.executeQuery(select)) {
+                generator.writeStartObject();
+                writeColumns(generator, rows.getMetaData());
+                generator.writeFieldName("rows");
+                int rowCount = writeRows(generator, rows);
+                generator.writeNumberField("offset", offset);
+                generator.writeNumberField("limit", limit.isNumber() ? limit.asLong() : rowCount);
+                generator.writeNumberField("total", total);
+                generator.writeEndObject();
+            }
+        } catch (SQLException e) {
+            throw badRequest(e);
+        }
+    }
+
+    /** Writes a {@code SQLSelectResponse} per statement. */
+    void select(List<String> statements, JsonGenerator generator) throws IOException {
+        try (Connection connection = connection();
+                Statement statement = connection.createStatement()) {
+            generator.writeStartArray();
+            for (String sql : statements) {
+                try (ResultSet rows = statement.executeQuery(toSql(sql))) {
+                    generator.writeStartObject();
+                    writeColumns(generator, rows.getMetaData());
+                    generator.writeFieldName("results");
+                    writeRows(generator, rows);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        } catch (SQLException e) {
+            throw badRequest(e);
+        }
+    }
+
+    /** Runs each statement and writes a {@code SQLUpdateResponse} per statement. */
+    void update(List<String> statements, JsonGenerator generator) throws IOException {
+        List<Integer> updatedRows = new ArrayList<>(statements.size());
+        try (Connection connection = connection();
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                updatedRows.add(statement.executeUpdate(toSql(sql)));
+            }
+        } catch (SQLException e) {
+            throw badRequest(e);
+        }
+        generator.writeStartArray();
+        for (int i = 0; i < statements.size(); i++) {
+            generator.writeStartObject();
+            generator.writeNumberField("status", 1);
+            generator.writeNumberField("updatedRows", updatedRows.get(i));
+            generator.writeStringField("stmt", statements.get(i));
+            generator.writeNullField("message");
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private Table table(String container) {
+        Table table = tables.get(key(container));
+        if (table != null) {
+            return table;
+        }
+        // created before a restart of the server, when the database is kept in a file
+        try (Connection connection = connection();
+                Statement statement = connection.createStatement();
+                ResultSet rows =
+                        statement.executeQuery(
+                                "SELECT * FROM " + quote(container) + " WHERE FALSE")) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            String name = metaData.getTableName(1);
+            List<Column> columns = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(new Column(metaData.getColumnLabel(i), gridDbType(metaData, i)));
+            }
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            boolean rowKey;
+            try (ResultSet primaryKeys = databaseMetaData.getPrimaryKeys(null, null, name)) {
+                rowKey = primaryKeys.next();
+            }
+            table = new Table(name, columns, rowKey);
+            tables.put(key(container), table);
+            return table;
+        } catch (SQLException e) {
+            throw new GridDbException(
+                    "Container not found", HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    private static void writeColumns(JsonGenerator generator, ResultSetMetaData metaData)
+            throws IOException, SQLException {
+        generator.writeArrayFieldStart("columns");
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            generator.writeStartObject();
+            generator.writeStringField("name", metaData.getColumnLabel(i));
+            generator.writeStringField("type", gridDbType(metaData, i));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static int writeRows(JsonGenerator generator, ResultSet rows)
+            throws IOException, SQLException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] types = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            types[i] = gridDbType(metaData, i + 1);
+        }
+        int count = 0;
+        generator.writeStartArray();
+        while (rows.next()) {
+            generator.writeStartArray();
+            for (int i = 0; i < columnCount; i++) {
+                writeValue(generator, rows, i + 1, types[i]);
+            }
+            generator.writeEndArray();
+            count++;
+        }
+        generator.writeEndArray();
+        return count;
+    }
+
+    private static void writeValue(JsonGenerator generator, ResultSet rows, int index, String type)
+            throws IOException, SQLException {
+        Object value = rows.getObject(index);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        switch (type) {
+            case "BOOL" -> generator.writeBoolean(rows.getBoolean(index));
+            case "BYTE", "SHORT", "INTEGER", "LONG" -> generator.writeNumber(rows.getLong(index));
+            case "FLOAT", "DOUBLE" -> generator.writeNumber(rows.getDouble(index));
+            case "TIMESTAMP" -> {
+                LocalDateTime utc =
+                        value instanceof OffsetDateTime offsetDateTime
+                                ? offsetDateTime
+                                        .withOffsetSameInstant(ZoneOffset.UTC)
+                                        .toLocalDateTime()
+                                : rows.getObject(index, LocalDateTime.class);
+                generator.writeString(DateTimeUtil.formatToZoneDateTimeString(utc));
+            }
+            default -> generator.writeString(rows.getString(index));
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int index, String type, JsonNode value)
+            throws SQLException {
+        if (value == null || value.isNull()) {
+            statement.setObject(index, null);
+            return;
+        }
+        switch (type) {
+            case "BOOL" -> statement.setBoolean(index, value.asBoolean());
+            case "BYTE", "SHORT", "INTEGER", "LONG" -> statement.setLong(index, value.asLong());
+            case "FLOAT", "DOUBLE" -> statement.setDouble(index, value.asDouble());
+            case "TIMESTAMP" ->
+                    statement.setObject(
+                            index,
+                            value.isNumber()
+                                    ? OffsetDateTime.ofInstant(
+                                            Instant.ofEpochMilli(value.asLong()), ZoneOffset.UTC)
+                                    : OffsetDateTime.parse(value.asText()));
+            default ->
+                    statement.setString(
+                            index, value.isTextual() ? value.textValue() : value.toString());
+        }
+    }
+
+    private static String sqlType(String gridDbType) {
+        return switch (gridDbType) {
+            case "STRING" -> "VARCHAR";
+            case "BOOL" -> "BOOLEAN";
+            case "BYTE" -> "TINYINT";
+            case "SHORT" -> "SMALLINT";
+            case "INTEGER" -> "INTEGER";
+            case "LONG" -> "BIGINT";
+            case "FLOAT" -> "REAL";
+            case "DOUBLE" -> "DOUBLE PRECISION";
+            case "TIMESTAMP" -> "TIMESTAMP(3) WITH TIME ZONE";
+            default -> throw badRequest("Unsupported column type " + gridDbType);
+        };
+    }
+
+    private static String gridDbType(ResultSetMetaData metaData, int index) throws SQLException {
+        return switch (metaData.getColumnType(index)) {
+            case Types.BOOLEAN, Types.BIT -> "BOOL";
+            case Types.TINYINT -> "BYTE";
+            case Types.SMALLINT -> "SHORT";
+            case Types.INTEGER -> "INTEGER";
+            case Types.BIGINT -> "LONG";
+            case Types.REAL -> "FLOAT";
+            case Types.FLOAT, Types.DOUBLE, Types.DECIMAL, Types.NUMERIC -> "DOUBLE";
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> "TIMESTAMP";
+            default -> "STRING";
+        };
+    }
+
+    /** Translates a TQL condition or GridDB SQL statement to H2 SQL. */
+    static String toSql(String statement) {
+        Matcher matcher = TIMESTAMP_FUNCTION.matcher(statement);
+        String sql = matcher.replaceAll("TIMESTAMP WITH TIME ZONE $1");
+        StringBuilder result = new StringBuilder(sql.length());
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '=' && i + 1 < sql.length() && sql.charAt(i + 1) == '=') {
+                i++;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static String key(String container) {
+        return container.toLowerCase(Locale.ROOT);
+    }
+
+    private static GridDbException badRequest(String message) {
+        return new GridDbException(message, HttpStatus.BAD_REQUEST, message);
+    }
+
+    private static GridDbException badRequest(Exception e) {
+        return new GridDbException(e.getMessage(), HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+
+    private record Column(String name, String type) {}
+
+    private record Table(String name, List<Column> columns, boolean rowKey) {}
+}